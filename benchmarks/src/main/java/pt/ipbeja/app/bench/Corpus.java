@@ -0,0 +1,128 @@
+package pt.ipbeja.app.bench;
+
+import pt.ipbeja.app.model.Model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fixed boards for the benchmarks, so runs can be compared
+ * Random walks use a fixed seed. The Korf 100 instances are read from the
+ * resource korf100.txt, or from the file given by -Dkorf100=file, one
+ * instance per line (16 numbers, optionally preceded by the instance
+ * number), in Korf's layout with the empty first;
+ * they are converted to this game's winning position (empty last) by a half
+ * turn of the board and relabelling piece p as 16 - p, which keeps distances
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public final class Corpus {
+    public static final long SEED = 20250512L;
+    private static final int N_CELLS = Model.N_LINES * Model.N_COLS;
+
+    private Corpus() {
+    }
+
+    /**
+     * @param name walkN for random walks of N moves, or korf100
+     * @return the boards, piece at each cell
+     */
+    public static int[][] named(String name) {
+        if (name.equals("korf100")) {
+            return Corpus.korf100();
+        }
+        if (name.startsWith("walk")) {
+            return Corpus.randomWalks(32, Integer.parseInt(name.substring(4)), SEED);
+        }
+        throw new IllegalArgumentException("Unknown corpus " + name);
+    }
+
+    /**
+     * Boards reached from the winning position by random moves that never
+     * undo the previous one
+     *
+     * @param count  number of boards
+     * @param length number of moves of each walk
+     * @param seed   seed of the random moves
+     * @return the boards
+     */
+    public static int[][] randomWalks(int count, int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] boards = new int[count][];
+        int[] deltas = {-Model.N_COLS, -1, 1, Model.N_COLS};
+        for (int b = 0; b < count; b++) {
+            int[] tiles = goal();
+            int empty = N_CELLS - 1;
+            int previous = -1;
+            for (int m = 0; m < length; ) {
+                int next = empty + deltas[random.nextInt(deltas.length)];
+                boolean inside = next >= 0 && next < N_CELLS &&
+                        (next / Model.N_COLS == empty / Model.N_COLS || next % Model.N_COLS == empty % Model.N_COLS);
+                if (inside && next != previous) {
+                    tiles[empty] = tiles[next];
+                    tiles[next] = Model.EMPTY;
+                    previous = empty;
+                    empty = next;
+                    m++;
+                }
+            }
+            boards[b] = tiles;
+        }
+        return boards;
+    }
+
+    /**
+     * @return the Korf 100 instances converted to this game's winning position
+     */
+    public static int[][] korf100() {
+        String file = System.getProperty("korf100");
+        try {
+            List<String> lines = file == null ? Corpus.resourceLines("korf100.txt") : Files.readAllLines(Path.of(file));
+            return lines.stream()
+                    .map(String::trim)
+                    .filter(l -> !l.isEmpty() && !l.startsWith("#"))
+                    .map(Corpus::fromKorf)
+                    .toArray(int[][]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> resourceLines(String name) throws IOException {
+        InputStream in = Corpus.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("Missing resource " + name);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+
+    private static int[] fromKorf(String line) {
+        String[] numbers = line.split("\\s+");
+        int[] tiles = new int[N_CELLS];
+        int first = numbers.length - N_CELLS;
+        for (int cell = 0; cell < N_CELLS; cell++) {
+            int piece = Integer.parseInt(numbers[first + cell]);
+            tiles[N_CELLS - 1 - cell] = piece == Model.EMPTY ? Model.EMPTY : N_CELLS - piece;
+        }
+        return tiles;
+    }
+
+    private static int[] goal() {
+        int[] tiles = new int[N_CELLS];
+        for (int cell = 0; cell < N_CELLS - 1; cell++) {
+            tiles[cell] = cell + 1;
+        }
+        return tiles;
+    }
+}
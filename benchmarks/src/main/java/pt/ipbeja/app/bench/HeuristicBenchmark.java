@@ -0,0 +1,63 @@
+package pt.ipbeja.app.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.ipbeja.app.model.Heuristic;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full evaluation of each heuristic over the boards of a corpus
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeuristicBenchmark {
+    @Param({"manhattan", "linear-conflict", "pdb555"})
+    public String heuristicName;
+
+    @Param({"walk80"})
+    public String corpus;
+
+    private Heuristic heuristic;
+    private int[][] tiles;
+    private int[][] cells;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.heuristic = Heuristics.named(this.heuristicName);
+        this.tiles = Corpus.named(this.corpus);
+        this.cells = new int[this.tiles.length][];
+        for (int b = 0; b < this.tiles.length; b++) {
+            this.cells[b] = new int[this.tiles[b].length];
+            for (int cell = 0; cell < this.tiles[b].length; cell++) {
+                this.cells[b][this.tiles[b][cell]] = cell;
+            }
+        }
+    }
+
+    @Benchmark
+    public int estimate() {
+        int b = this.next;
+        this.next = (b + 1) % this.tiles.length;
+        return this.heuristic.estimate(this.tiles[b], this.cells[b]);
+    }
+}
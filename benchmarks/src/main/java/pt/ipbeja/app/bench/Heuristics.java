@@ -0,0 +1,36 @@
+package pt.ipbeja.app.bench;
+
+import pt.ipbeja.app.model.Heuristic;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.PatternDatabase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Heuristics by name, for benchmark parameters
+ * Pattern databases are built once in the directory given by -Dpdb.dir
+ * (the temporary directory by default) and mapped from there
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+final class Heuristics {
+
+    private Heuristics() {
+    }
+
+    static Heuristic named(String name) throws IOException {
+        Path dir = Path.of(System.getProperty("pdb.dir", System.getProperty("java.io.tmpdir")));
+        return switch (name) {
+            case "manhattan" -> new ManhattanHeuristic(Model.N_LINES, Model.N_COLS, false);
+            case "linear-conflict" -> new ManhattanHeuristic();
+            case "pdb555" -> PatternDatabase.loadOrBuild(dir.resolve("fifteen-pdb555.bin"),
+                    Model.N_LINES, Model.N_COLS, PatternDatabase.PATTERNS_555);
+            case "pdb663" -> PatternDatabase.loadOrBuild(dir.resolve("fifteen-pdb663.bin"),
+                    Model.N_LINES, Model.N_COLS, PatternDatabase.PATTERNS_663);
+            default -> throw new IllegalArgumentException("Unknown heuristic " + name);
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package pt.ipbeja.app.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Position;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of Model: mixing, moving pieces, winning test, hashCode and equals
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+    private static final Position LEFT_OF_EMPTY = new Position(Model.N_LINES - 1, Model.N_COLS - 2);
+    private static final Position EMPTY = new Position(Model.N_LINES - 1, Model.N_COLS - 1);
+
+    private Model model;
+    private Model playing;
+    private Model mixed;
+    private Model other;
+    private boolean even;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.model = new Model((move, winning, tValue) -> {});
+        this.playing = new Model((move, winning, tValue) -> {});
+        this.mixed = new Model((move, winning, tValue) -> {});
+        this.mixed.mix(100, 100);
+        this.other = new Model((move, winning, tValue) -> {});
+        this.other.mix(100, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.model.stopTimer();
+        this.playing.stopTimer();
+        this.mixed.stopTimer();
+        this.other.stopTimer();
+    }
+
+    /**
+     * Mixes with 100 moves (the history grows with each call)
+     */
+    @Benchmark
+    public Model mix100() {
+        this.model.mix(100, 100);
+        return this.model;
+    }
+
+    /**
+     * Moves the piece left of the empty cell and back again, from the winning position
+     */
+    @Benchmark
+    public Model pieceSelected() {
+        this.playing.pieceSelected(this.even ? EMPTY : LEFT_OF_EMPTY);
+        this.even = !this.even;
+        return this.playing;
+    }
+
+    @Benchmark
+    public boolean inWinningPositions() {
+        return this.mixed.inWinningPositions();
+    }
+
+    @Benchmark
+    public int hashCodeOfModel() {
+        return this.mixed.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOfModel() {
+        return this.mixed.equals(this.other);
+    }
+}
@@ -0,0 +1,106 @@
+package pt.ipbeja.app.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.ipbeja.app.model.AnytimeSolver;
+import pt.ipbeja.app.model.BidirectionalSolver;
+import pt.ipbeja.app.model.Heuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.ParallelSolver;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Solver;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to solve each board of a corpus, for each solver and heuristic
+ * Use -p corpus=korf100 -p heuristicName=pdb663 for the Korf 100 instances;
+ * the anytime solver stops after anytimeMillis and the bidirectional search
+ * falls back to the sequential solver at bidirectionalBytes
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+    @Param({"linear-conflict", "pdb555"})
+    public String heuristicName;
+
+    @Param({"walk60"})
+    public String corpus;
+
+    @Param({"2"})
+    public int parallelism;
+
+    @Param({"50"})
+    public long anytimeMillis;
+
+    @Param({"268435456"})
+    public long bidirectionalBytes;
+
+    private int[][] boards;
+    private Solver solver;
+    private ParallelSolver parallelSolver;
+    private AnytimeSolver anytimeSolver;
+    private BidirectionalSolver bidirectionalSolver;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Heuristic heuristic = Heuristics.named(this.heuristicName);
+        this.boards = Corpus.named(this.corpus);
+        this.solver = new Solver(Model.N_LINES, Model.N_COLS, heuristic, Solver.UNLIMITED);
+        this.parallelSolver = new ParallelSolver(heuristic, this.parallelism);
+        this.anytimeSolver = new AnytimeSolver(Model.N_LINES, Model.N_COLS, heuristic);
+        this.bidirectionalSolver = new BidirectionalSolver(Model.N_LINES, Model.N_COLS,
+                this.bidirectionalBytes, this.solver);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.parallelSolver.close();
+    }
+
+    @Benchmark
+    public Solution sequential() {
+        return this.solver.solve(this.nextBoard());
+    }
+
+    @Benchmark
+    public Solution parallel() {
+        return this.parallelSolver.solve(this.nextBoard());
+    }
+
+    @Benchmark
+    public AnytimeSolver.Result anytime() {
+        return this.anytimeSolver.solve(this.nextBoard(), this.anytimeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public Solution bidirectional() {
+        return this.bidirectionalSolver.solve(this.nextBoard());
+    }
+
+    private int[] nextBoard() {
+        int b = this.next;
+        this.next = (b + 1) % this.boards.length;
+        return this.boards[b];
+    }
+}
@@ -0,0 +1,86 @@
+package pt.ipbeja.app.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.EndgameTable;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.StateTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to solve a board by table lookups: random 3x3 boards with the table
+ * of all their distances, and 4x4 random walks of endgameDepth moves with an
+ * endgame table of that depth
+ * The endgame table is built once in the directory given by -Dpdb.dir (the
+ * temporary directory by default) and read from there
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TableBenchmark {
+    private static final BoardSize SMALL = new BoardSize(3, 3);
+
+    @Param({"18"})
+    public int endgameDepth;
+
+    @Param({"268435456"})
+    public long endgameBytes;
+
+    private StateTable stateTable;
+    private EndgameTable endgameTable;
+    private int[][] smallBoards;
+    private int[][] endgameBoards;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.stateTable = StateTable.build(SMALL.lines(), SMALL.cols());
+        Random random = new Random(Corpus.SEED);
+        this.smallBoards = new int[32][];
+        for (int b = 0; b < this.smallBoards.length; b++) {
+            this.smallBoards[b] = Model.randomSolvableTiles(SMALL, random);
+        }
+        Path dir = Path.of(System.getProperty("pdb.dir", System.getProperty("java.io.tmpdir")));
+        this.endgameTable = EndgameTable.loadOrBuild(dir.resolve("fifteen-endgame" + this.endgameDepth + ".bin"),
+                Model.N_LINES, Model.N_COLS, this.endgameDepth, this.endgameBytes);
+        this.endgameBoards = Corpus.randomWalks(32, this.endgameTable.getDepth(), Corpus.SEED);
+    }
+
+    @Benchmark
+    public Solution stateTable() {
+        return this.stateTable.solve(this.smallBoards[this.nextIndex()]);
+    }
+
+    @Benchmark
+    public Solution endgameTable() {
+        return this.endgameTable.solve(this.endgameBoards[this.nextIndex()]);
+    }
+
+    private int nextIndex() {
+        int b = this.next;
+        this.next = (b + 1) % 32;
+        return b;
+    }
+}
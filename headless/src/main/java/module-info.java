@@ -0,0 +1,5 @@
+module pt.ipbeja.headless {
+    requires transitive pt.ipbeja.model;
+    exports pt.ipbeja.app.batch;
+    exports pt.ipbeja.app.server;
+}
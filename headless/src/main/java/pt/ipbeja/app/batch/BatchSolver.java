@@ -0,0 +1,269 @@
+package pt.ipbeja.app.batch;
+
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.Heuristic;
+import pt.ipbeja.app.model.Histogram;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.PatternDatabase;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Solver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless solver for files of boards, without JavaFX
+ * Boards are read in the layout of Model.toString (one board per line, or one
+ * line per board line) and solved on a fixed number of threads. At most
+ * maxInFlight boards are read ahead, so memory does not grow with the input.
+ * Each result is written as soon as it is found:
+ * board number, length, nodes expanded, microseconds and the moves, one letter
+ * for the direction of each moved piece (U, D, L, R)
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class BatchSolver {
+    private final BoardSize size;
+    private final Heuristic heuristic;
+    private final int threads;
+    private final int maxInFlight;
+    private final long maxNodes;
+
+    /**
+     * @param heuristic   heuristic used by all solvers
+     * @param threads     number of boards solved at the same time
+     * @param maxInFlight maximum number of boards read and not yet written
+     * @param maxNodes    maximum number of nodes for each board
+     */
+    public BatchSolver(Heuristic heuristic, int threads, int maxInFlight, long maxNodes) {
+        this(BoardSize.DEFAULT, heuristic, threads, maxInFlight, maxNodes);
+    }
+
+    /**
+     * @param size        number of lines and columns of the boards
+     * @param heuristic   heuristic for that size used by all solvers
+     * @param threads     number of boards solved at the same time
+     * @param maxInFlight maximum number of boards read and not yet written
+     * @param maxNodes    maximum number of nodes for each board
+     */
+    public BatchSolver(BoardSize size, Heuristic heuristic, int threads, int maxInFlight, long maxNodes) {
+        this.size = size;
+        this.heuristic = heuristic;
+        this.threads = threads;
+        this.maxInFlight = Math.max(threads, maxInFlight);
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Solves all boards of in and writes one result line for each to out
+     *
+     * @param in  boards to solve
+     * @param out results, in the order they are found
+     * @return statistics of the run
+     * @throws IOException if in cannot be read
+     */
+    public Summary run(Reader in, Writer out) throws IOException {
+        PrintWriter results = new PrintWriter(out);
+        Histogram latencies = new Histogram();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong nodes = new AtomicLong();
+        Semaphore inFlight = new Semaphore(this.maxInFlight);
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        ThreadLocal<Solver> solvers = ThreadLocal.withInitial(() ->
+                new Solver(this.size.lines(), this.size.cols(), this.heuristic, this.maxNodes));
+        long start = System.nanoTime();
+        long read = 0;
+        try (BufferedReader reader = new BufferedReader(in)) {
+            StringBuilder board = new StringBuilder();
+            int numbers = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                board.append(line).append(' ');
+                numbers += new StringTokenizer(line).countTokens();
+                if (numbers < this.size.cells()) {
+                    continue; // board continues in next line
+                }
+                long id = ++read;
+                String text = board.toString();
+                board.setLength(0);
+                numbers = 0;
+                inFlight.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        String result = this.solve(id, text, solvers.get(), latencies, nodes);
+                        if (result == null) {
+                            failed.incrementAndGet();
+                            result = id + " failed";
+                        }
+                        synchronized (results) {
+                            results.println(result);
+                            results.flush();
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            awaitTermination(pool);
+            results.flush();
+        }
+        return new Summary(read, failed.get(), nodes.get(), System.nanoTime() - start, latencies);
+    }
+
+    private String solve(long id, String text, Solver solver, Histogram latencies, AtomicLong nodes) {
+        long start = System.nanoTime();
+        Solution solution;
+        try {
+            int[] board = Model.parseBoard(text, this.size);
+            if (!Model.isSolvable(board, this.size)) {
+                return null;
+            }
+            solution = solver.solve(board);
+        } catch (RuntimeException e) {
+            return null; // invalid board, or the solver failed on it: the next boards go on
+        }
+        long nanos = System.nanoTime() - start;
+        latencies.record(nanos);
+        if (solution == null) {
+            return null;
+        }
+        nodes.addAndGet(solution.nodesExpanded());
+        StringBuilder s = new StringBuilder();
+        s.append(id).append(' ').append(solution.length()).append(' ')
+                .append(solution.nodesExpanded()).append(' ').append(nanos / 1000).append(' ');
+        for (Move m : solution.moves()) {
+            s.append(directionOf(m));
+        }
+        return s.toString();
+    }
+
+    /**
+     * @param move a move
+     * @return the direction of the moved piece: U, D, L or R
+     */
+    static char directionOf(Move move) {
+        int dLine = move.end().line() - move.begin().line();
+        int dCol = move.end().col() - move.begin().col();
+        return dLine < 0 ? 'U' : dLine > 0 ? 'D' : dCol < 0 ? 'L' : 'R';
+    }
+
+    private static void awaitTermination(ExecutorService pool) {
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                // still solving
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Statistics of a batch run
+     *
+     * @param boards    number of boards read
+     * @param failed    number of invalid or unsolvable boards, or boards not solved within the node limit
+     * @param nodes     total number of nodes expanded
+     * @param nanos     wall time of the run
+     * @param latencies time to solve each board, in nanoseconds
+     */
+    public record Summary(long boards, long failed, long nodes, long nanos, Histogram latencies) {
+
+        /**
+         * @return boards solved per second
+         */
+        public double throughput() {
+            return this.boards * 1e9 / Math.max(1, this.nanos);
+        }
+
+        @Override
+        public String toString() {
+            // no String.format, whose parser compiles a regex, and no +, whose
+            // call site spins method handles: each costs a short batch milliseconds
+            StringBuilder text = new StringBuilder("boards ").append(this.boards)
+                    .append(", failed ").append(this.failed)
+                    .append(", nodes ").append(this.nodes)
+                    .append(", time ").append(fixed(this.nanos / 1e9, 3))
+                    .append(" s, ").append(fixed(this.throughput(), 1)).append(" boards/s")
+                    .append(System.lineSeparator())
+                    .append("latency ms: mean ").append(fixed(this.latencies.mean() / 1e6, 3));
+            String[] names = {"p50", "p90", "p99", "p99.9"};
+            double[] percentiles = {50, 90, 99, 99.9};
+            for (int i = 0; i < names.length; i++) {
+                text.append(", ").append(names[i]).append(' ')
+                        .append(fixed(this.latencies.percentile(percentiles[i]) / 1e6, 3));
+            }
+            return text.append(", max ").append(fixed(this.latencies.max() / 1e6, 3)).toString();
+        }
+
+        private static String fixed(double value, int decimals) {
+            return BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+        }
+    }
+
+    /**
+     * Solves a file of boards
+     * Usage: BatchSolver [--size LxC] [--threads n] [--pdb file] [--max-nodes n] [file]
+     * The pattern database (6-6-3) is for 4x4 boards only
+     * Reads the standard input if there is no file or the file is -
+     * Results go to the standard output, the summary to the standard error
+     *
+     * @param args the options and the file
+     * @throws IOException if the boards or the pattern database cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxNodes = Solver.UNLIMITED;
+        BoardSize size = BoardSize.DEFAULT;
+        Path pdb = null;
+        String file = "-";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--size" -> size = BoardSize.parse(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--max-nodes" -> maxNodes = Long.parseLong(args[++i]);
+                case "--pdb" -> pdb = Path.of(args[++i]);
+                default -> file = args[i];
+            }
+        }
+        Heuristic heuristic;
+        if (pdb == null) {
+            heuristic = new ManhattanHeuristic(size.lines(), size.cols(), true);
+        } else if (size.equals(BoardSize.DEFAULT)) {
+            heuristic = PatternDatabase.loadOrBuild(pdb, size.lines(), size.cols(), PatternDatabase.PATTERNS_663);
+        } else {
+            throw new IllegalArgumentException("--pdb has patterns only for " + BoardSize.DEFAULT + ", not " + size);
+        }
+        Reader in = file.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        Summary summary = new BatchSolver(size, heuristic, threads, 4 * threads, maxNodes).run(in, out);
+        System.err.println(summary);
+    }
+}
@@ -0,0 +1,220 @@
+package pt.ipbeja.app.server;
+
+import pt.ipbeja.app.model.Metrics;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless server of fifteen games, one Session (and Model) per connection
+ * A single thread accepts, reads and writes all connections with a selector;
+ * a session is only handled when its client sent a command or it has lines to
+ * write. Lines written from other threads (solve animations, hints) are
+ * queued and the selector is woken up.
+ * Text protocol, one command per line:
+ * new [LxC], state, select line col, move U|D|L|R, solve [millis], hint, quit
+ * Replies and events, one per line:
+ * state LxC seconds pieces..., move line col line col, win seconds,
+ * hint line col, hint none, ok, ignored, busy (a solve or hint of the
+ * session is still searching), error text
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class GameServer implements Closeable {
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Session> pendingWrites;
+    private final Thread thread;
+    private volatile int sessions;
+    private volatile boolean running;
+
+    /**
+     * Opens the server socket; call start to accept clients
+     *
+     * @param port port to listen to, 0 for any free port
+     * @throws IOException if the port cannot be used
+     */
+    public GameServer(int port) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port), 1024);
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.thread = new Thread(this::loop, "fifteen-server");
+    }
+
+    /**
+     * Starts the server thread
+     */
+    public void start() {
+        this.running = true;
+        this.thread.start();
+    }
+
+    /**
+     * @return the port the server listens to
+     */
+    public int getPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return number of connected sessions
+     */
+    public int getSessions() {
+        return this.sessions;
+    }
+
+    private void loop() {
+        try {
+            while (this.running) {
+                this.selector.select();
+                this.registerWrites();
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    this.handle(key);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Server stopped: " + e.getMessage());
+        } finally {
+            this.closeAll();
+        }
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : this.selector.keys()) {
+            if (key.attachment() instanceof Session session) {
+                session.close();
+            }
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+        try {
+            this.selector.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            this.accept();
+            return;
+        }
+        Session session = (Session) key.attachment();
+        try {
+            if (key.isReadable() && !session.read()) {
+                this.closeSession(key);
+                return;
+            }
+            if (key.isValid() && (key.isWritable() || session.hasOutput())) {
+                session.write(key);
+            }
+        } catch (IOException e) {
+            this.closeSession(key);
+        } catch (RuntimeException e) { // a bug in one session must not stop the others
+            System.err.println("Session closed: " + e);
+            this.closeSession(key);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = this.serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Session session = new Session(this, channel);
+            channel.register(this.selector, SelectionKey.OP_READ, session);
+            this.sessions++;
+        }
+    }
+
+    private void closeSession(SelectionKey key) {
+        Session session = (Session) key.attachment();
+        session.close();
+        key.cancel();
+        try {
+            session.channel().close();
+        } catch (IOException e) {
+            // already closed
+        }
+        this.sessions--;
+    }
+
+    /**
+     * Asks the server thread to write the queued lines of a session
+     *
+     * @param session session with lines to write
+     */
+    void requestWrite(Session session) {
+        if (Thread.currentThread() == this.thread) {
+            return; // written after the command is handled
+        }
+        this.pendingWrites.add(session);
+        this.selector.wakeup();
+    }
+
+    private void registerWrites() {
+        Session session;
+        while ((session = this.pendingWrites.poll()) != null) {
+            SelectionKey key = session.channel().keyFor(this.selector);
+            if (key != null && key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    /**
+     * Closes all connections and stops the server thread
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.running) {
+            this.closeAll();
+            return;
+        }
+        this.running = false;
+        this.selector.wakeup();
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts a server
+     * Usage: GameServer [port]; with -Dfifteen.metrics=true the metrics are printed every 10 s
+     *
+     * @param args the port, 8015 by default
+     * @throws IOException if the port cannot be used
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8015;
+        GameServer server = new GameServer(port);
+        server.start();
+        System.out.println("Fifteen server on port " + server.getPort());
+        if (Metrics.enabled()) {
+            Metrics.dumpEvery(System.out::print, 10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package pt.ipbeja.app.server;
+
+import pt.ipbeja.app.model.Histogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Opens many sessions on a GameServer from one thread and measures the time
+ * between each command and its reply
+ * Each session asks for the state and then moves pieces in random directions
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class LoadClient {
+    private static final String[] MOVES = {"move U", "move D", "move L", "move R"};
+
+    private final InetSocketAddress server;
+    private final int sessions;
+    private final int commands;
+
+    /**
+     * @param server   address of the server
+     * @param sessions number of connections
+     * @param commands number of commands sent by each connection
+     */
+    public LoadClient(InetSocketAddress server, int sessions, int commands) {
+        this.server = server;
+        this.sessions = sessions;
+        this.commands = commands;
+    }
+
+    /**
+     * Connection of the load client
+     */
+    private static class Player {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(Session.MAX_LINE);
+        int remaining;
+        long sentAt;
+
+        Player(SocketChannel channel, int remaining) {
+            this.channel = channel;
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * Connects all sessions, runs the commands and closes the connections
+     *
+     * @return statistics of the run
+     * @throws IOException if a connection fails
+     */
+    public Result run() throws IOException {
+        Histogram latencies = new Histogram();
+        Random random = new Random(1);
+        long start = System.nanoTime();
+        int active = 0;
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < this.sessions; i++) {
+                SocketChannel channel = SocketChannel.open(this.server);
+                channel.configureBlocking(false);
+                Player player = new Player(channel, this.commands);
+                channel.register(selector, SelectionKey.OP_READ, player);
+                this.send(player, "state");
+                active++;
+            }
+            while (active > 0) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Player player = (Player) key.attachment();
+                    int replies = this.readReplies(player);
+                    for (int r = 0; r < replies; r++) {
+                        latencies.record(System.nanoTime() - player.sentAt);
+                        if (player.remaining == 0) {
+                            this.send(player, "quit");
+                            key.cancel();
+                            player.channel.close();
+                            active--;
+                            break;
+                        } else {
+                            player.remaining--;
+                            this.send(player, MOVES[random.nextInt(MOVES.length)]);
+                        }
+                    }
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        return new Result(this.sessions, latencies.count(), nanos, latencies);
+    }
+
+    private void send(Player player, String command) throws IOException {
+        player.sentAt = System.nanoTime();
+        ByteBuffer out = ByteBuffer.wrap((command + "\n").getBytes(StandardCharsets.US_ASCII));
+        while (out.hasRemaining()) {
+            player.channel.write(out);
+        }
+    }
+
+    /**
+     * @return number of complete reply lines read (win events are not replies)
+     */
+    private int readReplies(Player player) throws IOException {
+        if (player.channel.read(player.in) < 0) {
+            throw new IOException("server closed the connection");
+        }
+        player.in.flip();
+        int replies = 0;
+        int lineStart = 0;
+        for (int i = 0; i < player.in.limit(); i++) {
+            if (player.in.get(i) == '\n') {
+                if (player.in.get(lineStart) != 'w') {
+                    replies++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        player.in.position(lineStart);
+        player.in.compact();
+        return replies;
+    }
+
+    /**
+     * Statistics of a load run
+     *
+     * @param sessions  number of connections
+     * @param replies   number of replies received
+     * @param nanos     wall time of the run
+     * @param latencies time from each command to its reply, in nanoseconds
+     */
+    public record Result(int sessions, long replies, long nanos, Histogram latencies) {
+
+        @Override
+        public String toString() {
+            return String.format("sessions %d, replies %d, time %.3f s, %.0f replies/s%n" +
+                            "latency ms: mean %.3f, p50 %.3f, p99 %.3f, max %.3f",
+                    this.sessions, this.replies, this.nanos / 1e9, this.replies * 1e9 / Math.max(1, this.nanos),
+                    this.latencies.mean() / 1e6, this.latencies.percentile(50) / 1e6,
+                    this.latencies.percentile(99) / 1e6, this.latencies.max() / 1e6);
+        }
+    }
+
+    /**
+     * Runs a load test
+     * Usage: LoadClient [host] [port] [sessions] [commands]
+     *
+     * @param args server address, sessions (10000 by default) and commands per session (10 by default)
+     * @throws IOException if a connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8015;
+        int sessions = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int commands = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        System.out.println(new LoadClient(new InetSocketAddress(host, port), sessions, commands).run());
+    }
+}
@@ -0,0 +1,272 @@
+package pt.ipbeja.app.server;
+
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.GameScheduler;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.Position;
+import pt.ipbeja.app.model.Snapshot;
+import pt.ipbeja.app.model.View;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One player of the GameServer: a Model and the connection to its client
+ * This is the headless view of the model: each notifyView is written to the
+ * client as a text line. The model timer is not started, so an idle session
+ * has no scheduled task; the elapsed time is computed when asked
+ * Commands are read and run in the server thread; solve and hint run in the
+ * shared solver pool and their events are written when ready. Each session
+ * has at most one search in the pool: a solve or hint asked while it runs
+ * is answered "busy", so one client cannot fill the pool
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+class Session implements View {
+    static final int MAX_LINE = 128;
+    static final int MIX_MOVES = 30;
+    static final int SOLVE_STEP_MILLIS = 100;
+
+    private final GameServer server;
+    private final SocketChannel channel;
+    private final ByteBuffer in;
+    private ByteBuffer out;
+    private final AtomicBoolean searching;
+    private Model model;
+    private long startNanos;
+
+    Session(GameServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+        this.in = ByteBuffer.allocate(MAX_LINE);
+        this.out = ByteBuffer.allocate(0);
+        this.searching = new AtomicBoolean();
+        this.newGame(BoardSize.DEFAULT);
+    }
+
+    SocketChannel channel() {
+        return this.channel;
+    }
+
+    /**
+     * Starts a mixed board of given size
+     *
+     * @param size number of lines and columns
+     */
+    private void newGame(BoardSize size) {
+        if (this.model != null) {
+            this.model.cancelSolve();
+        }
+        this.model = new Model(this, size);
+        this.model.mix(MIX_MOVES, 2 * MIX_MOVES);
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Reads what the client sent and runs each complete line
+     *
+     * @return false if the client closed the connection or sent a line too long
+     * @throws IOException if the channel cannot be read
+     */
+    boolean read() throws IOException {
+        if (this.channel.read(this.in) < 0) {
+            return false;
+        }
+        this.in.flip();
+        int lineStart = 0;
+        for (int i = 0; i < this.in.limit(); i++) {
+            if (this.in.get(i) == '\n') {
+                String line = new String(this.in.array(), lineStart, i - lineStart, StandardCharsets.US_ASCII);
+                lineStart = i + 1;
+                if (!this.run(line.trim())) {
+                    return false;
+                }
+            }
+        }
+        this.in.position(lineStart);
+        this.in.compact();
+        return this.in.hasRemaining();
+    }
+
+    /**
+     * Runs one command
+     *
+     * @param line the command and its arguments
+     * @return false if the session must end
+     */
+    boolean run(String line) {
+        String[] words = line.split("\\s+");
+        try {
+            switch (words[0]) {
+                case "" -> {
+                    // empty line
+                }
+                case "new" -> {
+                    this.newGame(words.length > 1 ? BoardSize.parse(words[1]) : this.model.getSize());
+                    this.send(this.state());
+                }
+                case "state" -> this.send(this.state());
+                case "select" -> this.select(new Position(Integer.parseInt(words[1]), Integer.parseInt(words[2])));
+                case "move" -> this.select(this.pieceToMove(words[1].charAt(0)));
+                case "solve" -> {
+                    int step = words.length > 1 ? Integer.parseInt(words[1]) : SOLVE_STEP_MILLIS;
+                    if (this.startSearch()) {
+                        this.send("ok");
+                        this.model.unmix(step).whenComplete((done, e) -> this.searching.set(false));
+                    }
+                }
+                case "hint" -> {
+                    if (this.startSearch()) {
+                        CompletableFuture.supplyAsync(this.model::hint, GameScheduler.solvers())
+                                .whenComplete((move, e) -> {
+                                    this.searching.set(false); // before the reply, so the client may ask again
+                                    if (e == null) {
+                                        this.sendHint(move);
+                                    }
+                                });
+                    }
+                }
+                case "quit" -> {
+                    this.model.cancelSolve();
+                    return false;
+                }
+                default -> this.send("error unknown command " + words[0]);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            this.send("error " + line);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if no other search of this session is running; otherwise
+     * answers "busy"
+     */
+    private boolean startSearch() {
+        if (this.searching.compareAndSet(false, true)) {
+            return true;
+        }
+        this.send("busy");
+        return false;
+    }
+
+    private void select(Position position) {
+        if (!this.model.pieceSelected(position)) {
+            this.send("ignored");
+        }
+    }
+
+    /**
+     * @param direction direction of the moved piece: U, D, L or R
+     * @return position of the piece that moves in that direction to the empty cell
+     */
+    private Position pieceToMove(char direction) {
+        Position empty = this.model.snapshot().emptyPosition();
+        return switch (direction) {
+            case 'U' -> new Position(empty.line() + 1, empty.col());
+            case 'D' -> new Position(empty.line() - 1, empty.col());
+            case 'L' -> new Position(empty.line(), empty.col() + 1);
+            case 'R' -> new Position(empty.line(), empty.col() - 1);
+            default -> throw new IllegalArgumentException("direction " + direction);
+        };
+    }
+
+    /**
+     * @return "state", the size, the elapsed seconds and the piece at each cell
+     */
+    private String state() {
+        Snapshot board = this.model.snapshot();
+        BoardSize size = board.getSize();
+        StringBuilder s = new StringBuilder("state ");
+        s.append(size).append(' ').append((System.nanoTime() - this.startNanos) / 1_000_000_000L);
+        for (int cell = 0; cell < size.cells(); cell++) {
+            s.append(' ').append(board.pieceAt(cell));
+        }
+        return s.toString();
+    }
+
+    private void sendHint(Move move) {
+        this.send(move == null ? "hint none" : "hint " + move.begin().line() + " " + move.begin().col());
+    }
+
+    /**
+     * Writes each executed move as "move line col line col" followed by "win"
+     * when the board reaches the winning position; timer ticks are not sent
+     */
+    @Override
+    public void notifyView(Move move, Boolean winning, int tValue) {
+        if (move == null) {
+            return;
+        }
+        this.send("move " + move.begin().line() + " " + move.begin().col() + " "
+                + move.end().line() + " " + move.end().col());
+        if (winning) {
+            this.send("win " + (System.nanoTime() - this.startNanos) / 1_000_000_000L);
+        }
+    }
+
+    /**
+     * Queues a line for the client and asks the server to write it
+     * May be called from any thread
+     *
+     * @param line text without the new line
+     */
+    void send(String line) {
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        boolean wasEmpty;
+        synchronized (this) {
+            wasEmpty = this.out.position() == 0;
+            if (this.out.remaining() < bytes.length) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * this.out.capacity(), this.out.position() + bytes.length));
+                this.out.flip();
+                bigger.put(this.out);
+                this.out = bigger;
+            }
+            this.out.put(bytes);
+        }
+        if (wasEmpty) {
+            this.server.requestWrite(this);
+        }
+    }
+
+    /**
+     * Writes the queued lines; called by the server when the channel is writable
+     *
+     * @param key the key of this session
+     * @throws IOException if the channel cannot be written
+     */
+    synchronized void write(SelectionKey key) throws IOException {
+        this.out.flip();
+        this.channel.write(this.out);
+        this.out.compact();
+        if (this.out.position() == 0) {
+            key.interestOps(SelectionKey.OP_READ);
+            if (this.out.capacity() > MAX_LINE) {
+                this.out = ByteBuffer.allocate(0); // idle sessions keep no buffer
+            }
+        } else {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * @return true if there are lines not yet written
+     */
+    synchronized boolean hasOutput() {
+        return this.out.position() > 0;
+    }
+
+    /**
+     * Stops the solve animation of this session
+     */
+    void close() {
+        this.model.cancelSolve();
+    }
+}
@@ -0,0 +1,61 @@
+package pt.ipbeja.po2.app.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.batch.BatchSolver;
+import pt.ipbeja.app.model.Heuristic;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Solver;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSolverTest {
+
+    @Test
+    @DisplayName("boards in toString layout or in one line are solved")
+    void testBatch() throws IOException {
+        Model model = new Model((move, winning, tValue) -> {});
+        model.mix(20, 30);
+        String input = model + "\n" +
+                "1 2 3 4 5 6 7 8 9 10 11 12 13 14 0 15\n" +
+                "# invalid board\n" +
+                "1 1 3 4 5 6 7 8 9 10 11 12 13 14 0 15\n";
+        StringWriter out = new StringWriter();
+        BatchSolver batch = new BatchSolver(new ManhattanHeuristic(), 2, 4, Solver.UNLIMITED);
+        BatchSolver.Summary summary = batch.run(new StringReader(input), out);
+
+        assertEquals(3, summary.boards());
+        assertEquals(1, summary.failed());
+        assertEquals(2, summary.latencies().count());
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        String[] second = Arrays.stream(lines).filter(l -> l.startsWith("2 ")).findFirst().orElseThrow().split(" ");
+        assertEquals("1", second[1]); // length
+        assertEquals("L", second[4]); // piece 15 moves left
+        assertTrue(Arrays.asList(lines).contains("3 failed"));
+    }
+
+    @Test
+    @DisplayName("a board whose solver throws is written and counted as failed")
+    void testSolverFailure() throws IOException {
+        String input = "1 2 3 4 5 6 7 8 9 10 11 12 13 14 0 15\n" +
+                "1 2 3 4 5 6 7 8 9 10 11 12 13 0 14 15\n";
+        Heuristic broken = (tiles, cells) -> {
+            throw new IllegalStateException("broken heuristic");
+        };
+        StringWriter out = new StringWriter();
+        BatchSolver.Summary summary = new BatchSolver(broken, 2, 4, Solver.UNLIMITED)
+                .run(new StringReader(input), out);
+
+        assertEquals(2, summary.boards());
+        assertEquals(2, summary.failed());
+        assertTrue(out.toString().contains("1 failed"));
+        assertTrue(out.toString().contains("2 failed"));
+    }
+}
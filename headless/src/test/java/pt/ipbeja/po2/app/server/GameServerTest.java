@@ -0,0 +1,106 @@
+package pt.ipbeja.po2.app.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.GameScheduler;
+import pt.ipbeja.app.server.GameServer;
+import pt.ipbeja.app.server.LoadClient;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    @Test
+    @DisplayName("a client plays, asks for a hint and solves its board")
+    void testSession() throws Exception {
+        try (GameServer server = new GameServer(0)) {
+            server.start();
+            try (Socket socket = new Socket("localhost", server.getPort())) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+
+                out.println("new 3x3");
+                String[] state = in.readLine().split(" ");
+                assertEquals("state", state[0]);
+                assertEquals("3x3", state[1]);
+                assertEquals(3 + 9, state.length);
+
+                out.println("select 9 9");
+                assertEquals("ignored", in.readLine());
+                out.println("jump");
+                assertTrue(in.readLine().startsWith("error"));
+
+                out.println("hint");
+                String[] hint = in.readLine().split(" ");
+                assertEquals("hint", hint[0]);
+                out.println("select " + hint[1] + " " + hint[2]);
+                assertTrue(in.readLine().startsWith("move " + hint[1] + " " + hint[2]));
+
+                out.println("solve 0");
+                assertEquals("ok", in.readLine());
+                String line;
+                do {
+                    line = in.readLine();
+                } while (line.startsWith("move"));
+                assertTrue(line.startsWith("win"));
+
+                out.println("state");
+                assertTrue(in.readLine().endsWith(" 1 2 3 4 5 6 7 8 0"));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a session has one search at a time in the solver pool")
+    void testBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int t = 0; t < Runtime.getRuntime().availableProcessors(); t++) {
+            GameScheduler.solvers().execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        try (GameServer server = new GameServer(0)) {
+            server.start();
+            try (Socket socket = new Socket("localhost", server.getPort())) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+
+                out.println("hint");
+                out.println("hint");
+                assertEquals("busy", in.readLine());
+                out.println("solve 0");
+                assertEquals("busy", in.readLine());
+                release.countDown();
+                assertTrue(in.readLine().startsWith("hint"));
+
+                out.println("solve 0");
+                assertEquals("ok", in.readLine());
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("many sessions are served by one thread")
+    void testManySessions() throws Exception {
+        try (GameServer server = new GameServer(0)) {
+            server.start();
+            LoadClient.Result result = new LoadClient(
+                    new InetSocketAddress("localhost", server.getPort()), 500, 5).run();
+            assertEquals(500 * 6, result.replies());
+        }
+    }
+}
@@ -0,0 +1,4 @@
+module pt.ipbeja.model {
+    requires transitive jdk.jfr; // SolveEvent and ScrambleEvent are public
+    exports pt.ipbeja.app.model;
+}
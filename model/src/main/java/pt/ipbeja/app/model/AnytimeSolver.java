@@ -0,0 +1,300 @@
+package pt.ipbeja.app.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Anytime solver for boards too large for an optimal search in time
+ * Runs weighted IDA* (bound on g + w * h) with decreasing weights: the first
+ * solutions come fast, each later one is shorter, and w = 1 ends with an
+ * optimal one. Boards with g + h not below the best length are pruned.
+ * A solution found with weight w is at most w times longer than an optimal
+ * one, so each result carries a proven lower bound of the optimal length and
+ * the ratio between its length and that bound. Before the first pass, the
+ * board is solved by placing the pieces in order (see PlacementSolver): a long
+ * solution, but one there is always time for, so there is always an answer
+ * A solver is not thread safe, use one solver per thread
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class AnytimeSolver {
+    private static final int[] WEIGHTS = {2000, 500, 300, 200, 150, 125, 100}; // percent
+    private static final int CHECK_NODES = (1 << 12) - 1; // clock read every 4096 nodes
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final int FOUND = -1;
+    private static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    private final int nLines;
+    private final int nCols;
+    private final int[][] neighborCells;
+    private final Heuristic heuristic;
+    private final PlacementSolver placement;
+
+    private final int[] tiles;
+    private final int[] cells;
+    private int empty;
+    private int[] path; // path[g] is the empty cell after g moves
+    private int[] bestPath;
+    private int bestLength;
+    private int weight;
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+    private Future<Result> background;
+
+    /**
+     * Best solution found and what is proven about it
+     *
+     * @param solution   the solution, or null if none was found
+     * @param lowerBound proven lower bound of the length of an optimal solution
+     */
+    public record Result(Solution solution, int lowerBound) {
+
+        /**
+         * @return length of the solution divided by the lower bound (1 if optimal)
+         */
+        public double suboptimality() {
+            return this.solution == null ? Double.POSITIVE_INFINITY
+                    : this.lowerBound == 0 ? 1 : (double) this.solution.length() / this.lowerBound;
+        }
+
+        /**
+         * @return true if the solution is proven optimal
+         */
+        public boolean isOptimal() {
+            return this.solution != null && this.solution.length() == this.lowerBound;
+        }
+    }
+
+    /**
+     * @param nLines    number of lines of the board
+     * @param nCols     number of columns of the board
+     * @param heuristic admissible heuristic for that board
+     */
+    public AnytimeSolver(int nLines, int nCols, Heuristic heuristic) {
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.heuristic = heuristic;
+        this.placement = new PlacementSolver(nLines, nCols);
+        this.neighborCells = Model.createNeighborCells(nLines, nCols);
+        this.tiles = new int[nLines * nCols];
+        this.cells = new int[nLines * nCols];
+        this.path = new int[128];
+    }
+
+    /**
+     * Searches until an optimal solution is proven or the time runs out
+     *
+     * @param board   piece at each cell (line * nCols + col)
+     * @param timeout maximum search time
+     * @param unit    unit of timeout
+     * @return the best solution found
+     */
+    public Result solve(int[] board, long timeout, TimeUnit unit) {
+        return this.search(board, System.nanoTime() + unit.toNanos(timeout), result -> {});
+    }
+
+    /**
+     * Searches in the solver pool and returns the best solution found in time;
+     * the search goes on, giving each shorter solution to improvements, until
+     * an optimal solution is proven or cancel is called. The placement solution
+     * is found first, in the calling thread, so there is always a result
+     *
+     * @param board        piece at each cell (line * nCols + col)
+     * @param timeout      time to wait for the first result
+     * @param unit         unit of timeout
+     * @param improvements receives each result, each as short or shorter than the one before
+     * @return the best solution found in time
+     */
+    public Result solve(int[] board, long timeout, TimeUnit unit, Consumer<Result> improvements) {
+        this.cancel();
+        // with no time left, a search gives the placement solution: the answer until the first pass ends
+        AtomicReference<Result> latest = new AtomicReference<>(this.search(board, System.nanoTime(), improvements));
+        AnytimeSolver worker = new AnytimeSolver(this.nLines, this.nCols, this.heuristic);
+        Future<Result> future = GameScheduler.solvers().submit(() -> worker.search(board, NO_DEADLINE, result -> {
+            latest.set(result);
+            improvements.accept(result);
+        }));
+        this.background = future;
+        try {
+            return future.get(timeout, unit);
+        } catch (TimeoutException e) {
+            return latest.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return latest.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Anytime search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the search started in the solver pool, if any
+     */
+    public void cancel() {
+        if (this.background != null) {
+            this.background.cancel(true);
+            this.background = null;
+        }
+    }
+
+    private Result search(int[] board, long deadline, Consumer<Result> improvements) {
+        long start = System.nanoTime();
+        this.load(board);
+        this.deadline = deadline;
+        this.stopped = false;
+        this.nodes = 0;
+        this.bestPath = null;
+        this.bestLength = NOT_FOUND;
+        int h = this.heuristic.start(this.tiles, this.cells);
+        int estimate = this.heuristic.estimateOf(h);
+        int lowerBound = estimate;
+        if (estimate == 0 && this.isGoal()) {
+            return new Result(new Solution(List.of(), 0, System.nanoTime() - start), 0);
+        }
+        this.bestPath = this.placement.solve(board);
+        this.bestLength = this.bestPath.length - 1;
+        Result result = this.resultOf(lowerBound, start);
+        improvements.accept(result);
+        for (int w : WEIGHTS) {
+            this.weight = w;
+            int bound = w * estimate;
+            int t;
+            while ((t = this.search(0, h, bound, -1)) != FOUND && t != NOT_FOUND && !this.stopped) {
+                if (w == 100) {
+                    lowerBound = Math.max(lowerBound, (t + 99) / 100); // no solution of f <= bound
+                    result = this.resultOf(lowerBound, start);
+                }
+                bound = t;
+            }
+            if (this.stopped) {
+                return result;
+            }
+            if (t == NOT_FOUND) {
+                lowerBound = this.bestLength; // every shorter path was pruned
+            } else {
+                lowerBound = Math.max(lowerBound, (this.bestLength * 100 + w - 1) / w); // length <= w * optimal
+            }
+            result = this.resultOf(lowerBound, start);
+            improvements.accept(result);
+            if (result.isOptimal()) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    private Result resultOf(int lowerBound, long start) {
+        if (this.bestPath == null) {
+            return new Result(null, lowerBound);
+        }
+        if (((this.bestLength - lowerBound) & 1) != 0) {
+            lowerBound++; // all solutions of a board have the same parity
+        }
+        Solution solution = new Solution(this.movesOf(this.bestPath, this.bestLength), this.nodes,
+                System.nanoTime() - start);
+        return new Result(solution, Math.min(lowerBound, this.bestLength));
+    }
+
+    /**
+     * Depth first search limited by bound on 100 * g + weight * h
+     *
+     * @return FOUND, or the smallest f above bound, or NOT_FOUND if all was pruned
+     */
+    private int search(int g, int h, int bound, int prevEmpty) {
+        int estimate = this.heuristic.estimateOf(h);
+        if (g + estimate >= this.bestLength) {
+            return NOT_FOUND; // cannot improve the best solution
+        }
+        int f = 100 * g + this.weight * estimate;
+        if (f > bound) {
+            return f;
+        }
+        if (estimate == 0 && this.isGoal()) {
+            this.bestPath = Arrays.copyOf(this.path, g + 1);
+            this.bestLength = g;
+            return FOUND;
+        }
+        if ((++this.nodes & CHECK_NODES) == 0 && this.timeIsUp()) {
+            this.stopped = true;
+        }
+        if (this.stopped) {
+            return NOT_FOUND;
+        }
+        if (this.path.length <= g + 1) {
+            this.path = Arrays.copyOf(this.path, 2 * (g + 1));
+        }
+        int min = NOT_FOUND;
+        int to = this.empty;
+        for (int from : this.neighborCells[to]) {
+            if (from == prevEmpty) {
+                continue;
+            }
+            int piece = this.tiles[from];
+            this.movePiece(piece, from, to);
+            this.path[g + 1] = from;
+            int t = this.search(g + 1, this.heuristic.update(h, piece, from, to, this.tiles, this.cells),
+                    bound, to);
+            this.movePiece(piece, to, from);
+            if (t == FOUND) {
+                return FOUND;
+            }
+            if (t < min) {
+                min = t;
+            }
+        }
+        return min;
+    }
+
+    private boolean timeIsUp() {
+        return System.nanoTime() - this.deadline > 0 || Thread.currentThread().isInterrupted();
+    }
+
+    private boolean isGoal() {
+        for (int cell = 0; cell < this.tiles.length - 1; cell++) {
+            if (this.tiles[cell] != cell + 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void movePiece(int piece, int from, int to) {
+        this.tiles[to] = piece;
+        this.tiles[from] = Model.EMPTY;
+        this.cells[piece] = to;
+        this.cells[Model.EMPTY] = from;
+        this.empty = from;
+    }
+
+    private void load(int[] board) {
+        assert (board.length == this.tiles.length);
+        System.arraycopy(board, 0, this.tiles, 0, board.length);
+        for (int cell = 0; cell < board.length; cell++) {
+            this.cells[board[cell]] = cell;
+        }
+        this.empty = this.cells[Model.EMPTY];
+        this.path[0] = this.empty;
+    }
+
+    private List<Move> movesOf(int[] emptyPath, int length) {
+        List<Move> moves = new ArrayList<>(length);
+        for (int g = 1; g <= length; g++) {
+            moves.add(new Move(this.positionOf(emptyPath[g]), this.positionOf(emptyPath[g - 1])));
+        }
+        return moves;
+    }
+
+    private Position positionOf(int cell) {
+        return new Position(cell / this.nCols, cell % this.nCols);
+    }
+}
@@ -0,0 +1,279 @@
+package pt.ipbeja.app.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bidirectional breadth first search: one search from the board and one from
+ * the winning position, each expanding a whole layer at a time (the smaller
+ * frontier first), until a layer reaches a board seen by the other search.
+ * The shortest path through the boards met in that layer is optimal.
+ * Boards are packed in one long (up to 16 cells); seen boards and frontiers are
+ * OffHeapStateMaps, outside the Java heap, all within a memory cap. For each
+ * seen board the map keeps its depth and the direction of the empty cell in
+ * the move that reached it, which is enough to rebuild the path.
+ * If the cap is reached the search stops and the fallback solver, if any, is used
+ * The maps are kept and cleared for the next solve: the direct memory of a
+ * buffer is only given back when the buffer is garbage collected
+ * Not thread safe: use one solver per thread
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class BidirectionalSolver {
+    private static final int ROOT = 0xFF;
+    private static final int MAX_DEPTH = 62; // (62 << 2 | 3) < ROOT
+
+    private final int nLines;
+    private final int nCols;
+    private final int nCells;
+    private final int[][] neighborCells;
+    private final long memoryCap;
+    private final Solver fallback;
+    private OffHeapStateMap.Budget budget;
+    private Side forward;  // null until the maps of the first solve are allocated
+    private Side backward;
+    private long nodes;
+    private long bytesUsed;
+    private boolean capReached;
+
+    /**
+     * @param nLines    number of lines, with nLines * nCols up to 16
+     * @param nCols     number of columns
+     * @param memoryCap maximum number of bytes of all maps
+     * @param fallback  solver used when the cap is reached, or null
+     */
+    public BidirectionalSolver(int nLines, int nCols, long memoryCap, Solver fallback) {
+        if (nLines * nCols > PackedBoard.MAX_CELLS) {
+            throw new IllegalArgumentException("Bidirectional search needs at most 16 cells");
+        }
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.nCells = nLines * nCols;
+        this.neighborCells = Model.createNeighborCells(nLines, nCols);
+        this.memoryCap = memoryCap;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Search state of one direction
+     */
+    private final class Side {
+        final OffHeapStateMap seen; // board -> depth << 2 | direction, ROOT for the first board
+        OffHeapStateMap frontier;
+        OffHeapStateMap next;
+        int depth;
+
+        Side(OffHeapStateMap.Budget budget) {
+            this.seen = new OffHeapStateMap(budget);
+            this.frontier = new OffHeapStateMap(budget);
+            this.next = new OffHeapStateMap(budget);
+        }
+
+        /**
+         * Clears the maps of the last search and starts from first
+         */
+        void start(long first) {
+            this.seen.clear();
+            this.frontier.clear();
+            this.next.clear();
+            this.depth = 0;
+            this.seen.putIfAbsent(first, ROOT);
+            this.frontier.putIfAbsent(first, 0);
+        }
+
+        int depthOf(int value) {
+            return value == ROOT ? 0 : value >>> 2;
+        }
+    }
+
+    /**
+     * @param board piece at each cell (line * cols + col), a solvable board
+     * @return an optimal solution, or null if the cap was reached and there is no fallback
+     */
+    public Solution solve(int[] board) {
+        long start = System.nanoTime();
+        this.nodes = 0;
+        this.capReached = false;
+        long first = PackedBoard.pack(board);
+        long goal = PackedBoard.goal(this.nCells);
+        if (first == goal) {
+            return new Solution(List.of(), 0, System.nanoTime() - start);
+        }
+        if (this.forward == null) {
+            try {
+                OffHeapStateMap.Budget newBudget = new OffHeapStateMap.Budget(this.memoryCap);
+                Side newForward = new Side(newBudget);
+                Side newBackward = new Side(newBudget);
+                this.budget = newBudget;
+                this.forward = newForward;
+                this.backward = newBackward;
+            } catch (IllegalStateException e) {
+                this.capReached = true; // cap too small even for empty maps
+                return this.fallback == null ? null : this.fallback.solve(board);
+            }
+        }
+        OffHeapStateMap.Budget budget = this.budget;
+        Side forward = this.forward;
+        Side backward = this.backward;
+        budget.restart();
+        forward.start(first);
+        backward.start(goal);
+        long meet = 0;
+        while (meet == 0 && !budget.exceeded()) {
+            boolean forwardFirst = forward.frontier.size() <= backward.frontier.size();
+            Side side = forwardFirst ? forward : backward;
+            if (side.frontier.size() == 0 || side.depth >= MAX_DEPTH) {
+                break; // not solvable, or deeper than a value byte can say
+            }
+            meet = this.expand(side, forwardFirst ? backward : forward);
+        }
+        this.bytesUsed = budget.used();
+        if (meet == 0) {
+            if (forward.frontier.size() == 0 || backward.frontier.size() == 0) {
+                return null; // every reachable board was seen
+            }
+            this.capReached = budget.exceeded();
+            return this.fallback == null ? null : this.fallback.solve(board);
+        }
+        List<Move> moves = this.pathFrom(forward, meet, true);
+        moves.addAll(this.pathFrom(backward, meet, false));
+        return new Solution(moves, this.nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Expands the whole frontier of side by one layer
+     *
+     * @return the board met with the shortest total path, 0 if none or if the cap was reached
+     */
+    private long expand(Side side, Side other) {
+        int childDepth = side.depth + 1;
+        long best = 0;
+        int bestLength = Integer.MAX_VALUE;
+        OffHeapStateMap frontier = side.frontier;
+        for (int slot = 0; slot < frontier.capacity(); slot++) {
+            long state = frontier.keyAt(slot);
+            if (state == 0) {
+                continue;
+            }
+            this.nodes++;
+            int empty = PackedBoard.emptyCellOf(state);
+            for (int to : this.neighborCells[empty]) {
+                long piece = (state >>> (to << 2)) & PackedBoard.CELL_MASK;
+                long child = state ^ (piece << (to << 2)) ^ (piece << (empty << 2));
+                int value = childDepth << 2 | this.directionOf(empty, to);
+                int old = side.seen.putIfAbsent(child, value);
+                if (old == OffHeapStateMap.FULL) {
+                    return 0;
+                }
+                if (old != OffHeapStateMap.ABSENT) {
+                    continue;
+                }
+                if (side.next.putIfAbsent(child, 0) == OffHeapStateMap.FULL) {
+                    return 0;
+                }
+                int met = other.seen.get(child);
+                if (met != OffHeapStateMap.ABSENT && childDepth + other.depthOf(met) < bestLength) {
+                    bestLength = childDepth + other.depthOf(met);
+                    best = child;
+                }
+            }
+        }
+        OffHeapStateMap done = side.frontier;
+        side.frontier = side.next;
+        side.next = done;
+        side.next.clear();
+        side.depth = childDepth;
+        return best;
+    }
+
+    private int directionOf(int from, int to) {
+        int delta = to - from;
+        return delta == -this.nCols ? MoveHistory.UP
+                : delta == -1 ? MoveHistory.LEFT
+                : delta == 1 ? MoveHistory.RIGHT
+                : MoveHistory.DOWN;
+    }
+
+    private int deltaOf(int direction) {
+        return switch (direction) {
+            case MoveHistory.UP -> -this.nCols;
+            case MoveHistory.LEFT -> -1;
+            case MoveHistory.RIGHT -> 1;
+            default -> this.nCols;
+        };
+    }
+
+    /**
+     * Follows the moves stored by side from meet back to its first board
+     *
+     * @param forward true for the search from the board: the moves are
+     *                returned from the board to meet; otherwise from meet to the goal
+     */
+    private List<Move> pathFrom(Side side, long meet, boolean forward) {
+        List<Move> moves = new ArrayList<>();
+        long state = meet;
+        int value;
+        while ((value = side.seen.get(state)) != ROOT) {
+            int empty = PackedBoard.emptyCellOf(state);
+            int previousEmpty = empty - this.deltaOf(value & 3);
+            // the move from previous to state: the piece at empty went to previousEmpty
+            long piece = (state >>> (previousEmpty << 2)) & PackedBoard.CELL_MASK;
+            moves.add(forward
+                    ? new Move(this.positionOf(empty), this.positionOf(previousEmpty))
+                    : new Move(this.positionOf(previousEmpty), this.positionOf(empty)));
+            state ^= (piece << (previousEmpty << 2)) ^ (piece << (empty << 2));
+        }
+        if (forward) {
+            Collections.reverse(moves);
+        }
+        return moves;
+    }
+
+    private Position positionOf(int cell) {
+        return new Position(cell / this.nCols, cell % this.nCols);
+    }
+
+    /**
+     * @return number of boards expanded by the last solve
+     */
+    public long nodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return bytes of off-heap memory held by the maps when the last solve ended
+     */
+    public long bytesUsed() {
+        return this.bytesUsed;
+    }
+
+    /**
+     * @return true if the last solve stopped at the memory cap
+     */
+    public boolean capReached() {
+        return this.capReached;
+    }
+
+    /**
+     * @return number of lines of the boards
+     */
+    public int getLines() {
+        return this.nLines;
+    }
+
+    /**
+     * @return maximum number of bytes of all maps
+     */
+    public long getMemoryCap() {
+        return this.memoryCap;
+    }
+
+    /**
+     * @return the solver used when the cap is reached, or null
+     */
+    public Solver getFallback() {
+        return this.fallback;
+    }
+}
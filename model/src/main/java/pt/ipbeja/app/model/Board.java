@@ -0,0 +1,104 @@
+package pt.ipbeja.app.model;
+
+/**
+ * Encoding of the pieces of a board, chosen by number of cells:
+ * boards up to 16 cells use one long (PackedBoard), larger boards one byte
+ * per cell (WideBoard)
+ * In the winning position cell i has piece i + 1 and the last cell is empty
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+abstract class Board {
+    protected final int nCells;
+    protected int emptyCell;
+    protected long stateHash; // Zobrist hash, updated by each move
+
+    protected Board(int nCells) {
+        this.nCells = nCells;
+    }
+
+    /**
+     * @param nCells number of cells
+     * @return an encoding for boards with nCells cells, in the winning position
+     */
+    static Board create(int nCells) {
+        Board board = nCells <= PackedBoard.MAX_CELLS ? new PackedBoard(nCells) : new WideBoard(nCells);
+        board.reset();
+        return board;
+    }
+
+    /**
+     * @param cell cell number
+     * @return the piece at cell
+     */
+    abstract int pieceAt(int cell);
+
+    /**
+     * Moves the piece at cell to the empty cell; cell becomes the empty cell
+     *
+     * @param cell a neighbor cell of the empty cell
+     */
+    abstract void moveEmptyTo(int cell);
+
+    /**
+     * @return true if all pieces are in their winning cells
+     */
+    abstract boolean isGoal();
+
+    /**
+     * Puts the board in the winning position
+     */
+    abstract void reset();
+
+    /**
+     * @param tiles piece at each cell
+     */
+    abstract void setTiles(int[] tiles);
+
+    /**
+     * @return Zobrist hash of the pieces, kept up to date by each change
+     */
+    long stateHash() {
+        return this.stateHash;
+    }
+
+    /**
+     * @return key of the pieces for a StateIndex: the hash, unless a subclass
+     * has an exact one
+     */
+    long stateKey() {
+        return this.stateHash;
+    }
+
+    /**
+     * @param other board with the same number of cells
+     * @return true if both boards have the same pieces in the same cells
+     */
+    abstract boolean sameState(Board other);
+
+    /**
+     * @return the empty cell
+     */
+    int emptyCell() {
+        return this.emptyCell;
+    }
+
+    /**
+     * @return number of cells
+     */
+    int cells() {
+        return this.nCells;
+    }
+
+    /**
+     * @return a new array with the piece at each cell
+     */
+    int[] tiles() {
+        int[] tiles = new int[this.nCells];
+        for (int cell = 0; cell < this.nCells; cell++) {
+            tiles[cell] = this.pieceAt(cell);
+        }
+        return tiles;
+    }
+}
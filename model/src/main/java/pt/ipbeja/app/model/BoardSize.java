@@ -0,0 +1,81 @@
+package pt.ipbeja.app.model;
+
+/**
+ * Number of lines and columns of a board
+ * Cells are numbered line by line: cell = line * cols + col
+ *
+ * @param lines number of lines, from MIN to MAX
+ * @param cols  number of columns, from MIN to MAX
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public record BoardSize(int lines, int cols) {
+    public static final int MIN = 2;
+    public static final int MAX = 7;
+
+    /**
+     * The fifteen puzzle
+     */
+    public static final BoardSize DEFAULT = new BoardSize(Model.N_LINES, Model.N_COLS);
+
+    public BoardSize {
+        if (lines < MIN || lines > MAX || cols < MIN || cols > MAX) {
+            throw new IllegalArgumentException("Board size must be from " + MIN + "x" + MIN +
+                    " to " + MAX + "x" + MAX + ": " + lines + "x" + cols);
+        }
+    }
+
+    /**
+     * Reads a size written as LINESxCOLS, e.g. 3x3 or 4x5
+     *
+     * @param text the size
+     * @return the size
+     * @throws IllegalArgumentException if text is not a valid size
+     */
+    public static BoardSize parse(String text) {
+        String[] parts = text.trim().toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Board size must be LINESxCOLS: " + text);
+        }
+        return new BoardSize(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+
+    /**
+     * @return number of cells
+     */
+    public int cells() {
+        return this.lines * this.cols;
+    }
+
+    /**
+     * Checks if line col are inside a board of this size
+     *
+     * @param line line
+     * @param col  column
+     * @return true if inside, false otherwise
+     */
+    public boolean isInside(int line, int col) {
+        return 0 <= line && line < this.lines && 0 <= col && col < this.cols;
+    }
+
+    /**
+     * @param position position inside the board
+     * @return the cell of position
+     */
+    public int cellOf(Position position) {
+        return position.line() * this.cols + position.col();
+    }
+
+    /**
+     * @param cell cell number
+     * @return the position of cell
+     */
+    public Position positionOf(int cell) {
+        return new Position(cell / this.cols, cell % this.cols);
+    }
+
+    @Override
+    public String toString() {
+        return this.lines + "x" + this.cols;
+    }
+}
@@ -0,0 +1,94 @@
+package pt.ipbeja.app.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * View between a Model and another view that delivers at most one update per
+ * interval (e.g. one per frame)
+ * Moves and timer values are accumulated and given to the other view as one
+ * list of moves, with the last timer value. A move that reaches the winning
+ * position is delivered at once, with the moves before it
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public final class CoalescingView implements View {
+    public static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    private final View target;
+    private final long intervalNanos;
+    private List<Move> moves;
+    private boolean pending;
+    private boolean winning;
+    private int tValue;
+    private boolean scheduled;
+    private long lastDelivery;
+
+    /**
+     * Delivers at most 60 updates per second
+     *
+     * @param target the view to notify
+     */
+    public CoalescingView(View target) {
+        this(target, FRAME_NANOS);
+    }
+
+    /**
+     * @param target        the view to notify
+     * @param intervalNanos minimum time between two updates
+     */
+    public CoalescingView(View target, long intervalNanos) {
+        this.target = target;
+        this.intervalNanos = intervalNanos;
+        this.moves = new ArrayList<>();
+        this.lastDelivery = System.nanoTime() - intervalNanos;
+    }
+
+    @Override
+    public synchronized void notifyView(Move move, Boolean winning, int tValue) {
+        if (move != null) {
+            this.moves.add(move);
+        }
+        this.add(winning, tValue);
+    }
+
+    @Override
+    public synchronized void notifyView(List<Move> moves, Boolean winning, int tValue) {
+        this.moves.addAll(moves);
+        this.add(winning, tValue);
+    }
+
+    private void add(boolean winning, int tValue) {
+        this.pending = true;
+        this.winning = winning;
+        this.tValue = tValue;
+        if (winning) {
+            this.deliver();
+        } else if (!this.scheduled) {
+            this.scheduled = true;
+            long wait = this.lastDelivery + this.intervalNanos - System.nanoTime();
+            GameScheduler.after(this::scheduledDelivery, Math.max(0, wait), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void scheduledDelivery() {
+        this.scheduled = false;
+        this.deliver();
+    }
+
+    /**
+     * Gives the accumulated moves to the target view, if there are any
+     */
+    private void deliver() {
+        if (!this.pending) {
+            return;
+        }
+        List<Move> delivered = this.moves;
+        this.moves = new ArrayList<>();
+        this.pending = false;
+        this.lastDelivery = System.nanoTime();
+        this.target.notifyView(delivered, this.winning, this.tValue);
+    }
+}
@@ -0,0 +1,111 @@
+package pt.ipbeja.app.model;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs the commands of one Model one at a time, in the order they arrive
+ * Any thread may add commands to a lock-free queue; the first thread that
+ * finds the loop idle becomes its only writer and runs queued commands until
+ * the queue is empty, so no thread is dedicated to a model and no lock is held
+ * while commands run. Commands added by a running command (e.g. by a view
+ * notified of a move) run after it; calls that wait for a result run at once,
+ * as the thread already owns the loop
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+final class CommandLoop {
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Thread> writer = new AtomicReference<>();
+
+    /**
+     * Runs command now or later, without waiting
+     *
+     * @param command short command that changes the model
+     */
+    void execute(Runnable command) {
+        this.commands.add(command);
+        this.drain();
+    }
+
+    /**
+     * Runs command and waits for it to end
+     *
+     * @param command short command that changes the model
+     */
+    void run(Runnable command) {
+        this.call(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs command and waits for its result
+     *
+     * @param command short command that changes the model
+     * @param <T>     type of the result
+     * @return the result of command
+     */
+    <T> T call(Supplier<T> command) {
+        if (this.writer.get() == Thread.currentThread()) {
+            return command.get();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        this.execute(() -> {
+            try {
+                result.complete(command.get());
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if the current thread is running the commands
+     */
+    boolean inLoop() {
+        return this.writer.get() == Thread.currentThread();
+    }
+
+    private void drain() {
+        Thread current = Thread.currentThread();
+        if (this.writer.get() == current) {
+            return; // runs after the current command
+        }
+        // a command added after the writer emptied the queue is taken by the
+        // next iteration of its adder
+        while (!this.commands.isEmpty() && this.writer.compareAndSet(null, current)) {
+            try {
+                Runnable command;
+                while ((command = this.commands.poll()) != null) {
+                    runSafely(command);
+                }
+            } finally {
+                this.writer.set(null);
+            }
+        }
+    }
+
+    private static void runSafely(Runnable command) {
+        try {
+            command.run();
+        } catch (RuntimeException e) {
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+}
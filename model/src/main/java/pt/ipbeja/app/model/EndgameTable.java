@@ -0,0 +1,281 @@
+package pt.ipbeja.app.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Distance to the goal of every board within depth moves of it, for boards of
+ * up to 16 cells (4x4 included)
+ * The packed boards are kept sorted, followed by one byte of distance for
+ * each; a board is found by binary search. From a board at distance d, one of
+ * its neighbors is at distance d - 1, so an optimal solution is a walk of
+ * lookups, without search. Boards not in the table are more than depth moves
+ * away. The table is built with ExternalBfs and saved in a file that is memory
+ * mapped; 4x4 up to depth 20 has 3.4 million boards (31 MB)
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class EndgameTable {
+    private static final int MAGIC = 0x45475431; // "EGT1"
+    private static final int HEADER_BYTES = 4 * 4 + 8;
+    private static final int ENTRY_BYTES = Long.BYTES + 1;
+
+    private final int nLines;
+    private final int nCols;
+    private final int depth;
+    private final int[][] neighbors;
+    private final LongBuffer keys;
+    private final ByteBuffer distances;
+
+    private EndgameTable(int nLines, int nCols, int depth, LongBuffer keys, ByteBuffer distances) {
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.depth = depth;
+        this.neighbors = Model.createNeighborCells(nLines, nCols);
+        this.keys = keys;
+        this.distances = distances;
+    }
+
+    /**
+     * Loads the table from file, or builds and saves it if the file does not exist
+     *
+     * @param file     the table file
+     * @param nLines   number of lines of the board
+     * @param nCols    number of columns of the board
+     * @param depth    largest distance of the boards in the table
+     * @param maxBytes maximum size of the table; fewer layers are kept if needed
+     * @return the table
+     * @throws IOException if the file cannot be read or written
+     */
+    public static EndgameTable loadOrBuild(Path file, int nLines, int nCols, int depth, long maxBytes)
+            throws IOException {
+        if (!Files.exists(file)) {
+            EndgameTable.build(file, nLines, nCols, depth, maxBytes);
+        }
+        EndgameTable table = EndgameTable.load(file);
+        if (table.nLines != nLines || table.nCols != nCols) {
+            throw new IOException("Endgame table " + file + " was built for other board");
+        }
+        return table;
+    }
+
+    /**
+     * Maps a table file in memory
+     *
+     * @param file the table file
+     * @return the table
+     * @throws IOException if the file cannot be read or is not an endgame table
+     */
+    public static EndgameTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not an endgame table: " + file);
+            }
+            int nLines = buffer.getInt();
+            int nCols = buffer.getInt();
+            int depth = buffer.getInt();
+            long n = buffer.getLong();
+            if (buffer.remaining() != n * ENTRY_BYTES) {
+                throw new IOException("Truncated endgame table: " + file);
+            }
+            LongBuffer keys = buffer.slice(HEADER_BYTES, (int) n * Long.BYTES).asLongBuffer();
+            ByteBuffer distances = buffer.slice(HEADER_BYTES + (int) n * Long.BYTES, (int) n);
+            return new EndgameTable(nLines, nCols, depth, keys, distances);
+        }
+    }
+
+    /**
+     * Builds a table file by external breadth first search from the winning
+     * position; the search files are kept aside the table until it is saved,
+     * so a build that stops continues from the last layer. The search stops
+     * at depth, or at the first layer that would make the table larger than
+     * maxBytes
+     *
+     * @param file     the table file
+     * @param nLines   number of lines of the board
+     * @param nCols    number of columns of the board
+     * @param depth    largest distance of the boards in the table
+     * @param maxBytes maximum size of the table; fewer layers are kept if needed
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void build(Path file, int nLines, int nCols, int depth, long maxBytes) throws IOException {
+        Path work = file.resolveSibling(file.getFileName() + ".bfs");
+        long limit = Math.min(maxBytes, Integer.MAX_VALUE - HEADER_BYTES); // one mapped buffer
+        int runStates = (int) Math.max(1 << 16, Math.min(ExternalBfs.DEFAULT_RUN_STATES, limit / Long.BYTES));
+        ExternalBfs bfs = new ExternalBfs(work, nLines, nCols, runStates);
+        long n = 0;
+        int kept = -1;
+        // one layer at a time: the search stops at the first layer that does not fit
+        while (kept < depth) {
+            List<ExternalBfs.Layer> layers = bfs.run(kept + 1, l -> {});
+            if (layers.size() <= kept + 1) {
+                break; // every board found
+            }
+            ExternalBfs.Layer layer = layers.get(kept + 1);
+            if ((n + layer.states()) * ENTRY_BYTES > limit) {
+                break;
+            }
+            n += layer.states();
+            kept = layer.depth();
+        }
+        long[] keys = new long[(int) n];
+        int[] i = {0};
+        for (int d = 0; d <= kept; d++) {
+            bfs.forEach(d, state -> keys[i[0]++] = state);
+        }
+        Arrays.sort(keys);
+        byte[] distances = new byte[keys.length];
+        for (int d = 0; d <= kept; d++) {
+            byte distance = (byte) d;
+            bfs.forEach(d, state -> distances[Arrays.binarySearch(keys, state)] = distance);
+        }
+        save(file, nLines, nCols, kept, keys, distances);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(work)) {
+            for (Path search : files) {
+                Files.delete(search);
+            }
+        }
+        Files.delete(work);
+    }
+
+    private static void save(Path file, int nLines, int nCols, int depth, long[] keys, byte[] distances)
+            throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(nLines).putInt(nCols).putInt(depth).putLong(keys.length);
+            header.flip();
+            writeFully(channel, header);
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            for (long key : keys) {
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer.flip());
+                    buffer.clear();
+                }
+                buffer.putLong(key);
+            }
+            writeFully(channel, buffer.flip());
+            writeFully(channel, ByteBuffer.wrap(distances));
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @param packed packed board
+     * @return moves of an optimal solution, or -1 if the board is not in the table
+     */
+    private int distanceOf(long packed) {
+        int lo = 0;
+        int hi = this.keys.limit() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long key = this.keys.get(mid);
+            if (key < packed) {
+                lo = mid + 1;
+            } else if (key > packed) {
+                hi = mid - 1;
+            } else {
+                return this.distances.get(mid);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds an optimal solution by a walk of lookups: each step moves to the
+     * neighbor one move closer
+     *
+     * @param board piece at each cell (line * cols + col)
+     * @return the solution, or null if the board is more than getDepth moves away
+     */
+    public Solution solve(int[] board) {
+        long start = System.nanoTime();
+        long packed = PackedBoard.pack(board);
+        int distance = this.distanceOf(packed);
+        if (distance < 0) {
+            return null;
+        }
+        List<Move> moves = new ArrayList<>(distance);
+        int lookups = 1;
+        int empty = PackedBoard.emptyCellOf(packed);
+        while (distance > 0) {
+            for (int from : this.neighbors[empty]) {
+                long piece = (packed >>> (from << 2)) & PackedBoard.CELL_MASK;
+                long neighbor = packed ^ (piece << (from << 2)) ^ (piece << (empty << 2));
+                lookups++;
+                if (this.distanceOf(neighbor) == distance - 1) {
+                    moves.add(new Move(this.positionOf(from), this.positionOf(empty)));
+                    packed = neighbor;
+                    empty = from;
+                    distance--;
+                    break;
+                }
+            }
+        }
+        return new Solution(moves, lookups, System.nanoTime() - start);
+    }
+
+    private Position positionOf(int cell) {
+        return new Position(cell / this.nCols, cell % this.nCols);
+    }
+
+    /**
+     * @return the largest distance of the boards in the table
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return number of boards in the table
+     */
+    public int states() {
+        return this.keys.limit();
+    }
+
+    /**
+     * @return number of lines and columns of the boards of this table
+     */
+    public BoardSize getSize() {
+        return new BoardSize(this.nLines, this.nCols);
+    }
+
+    /**
+     * Builds a table file
+     * Usage: EndgameTable LxC depth file [maxMegabytes]
+     *
+     * @param args the board size, the depth, the file and the maximum size
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        BoardSize size = BoardSize.parse(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        long maxBytes = args.length > 3 ? Long.parseLong(args[3]) << 20 : Integer.MAX_VALUE;
+        long start = System.nanoTime();
+        EndgameTable table = EndgameTable.loadOrBuild(Path.of(args[2]), size.lines(), size.cols(), depth, maxBytes);
+        System.out.printf("%s: %d boards up to depth %d, %.1f s%n", size, table.states(), table.getDepth(),
+                (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,532 @@
+package pt.ipbeja.app.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Breadth first search from the winning position over all boards of up to
+ * 16 cells, with the layers on disk instead of in memory
+ * Each layer is a file of sorted packed boards, each stored as the varint of
+ * its difference to the previous one. Layer d + 1 is built in two passes:
+ * the neighbors of layer d are collected in a buffer of runStates boards, and
+ * each full buffer is sorted and written as a run; then the runs are merged
+ * (k-way), dropping repeated boards and the boards of layers d and d - 1
+ * (as moves are reversible, no other layer can hold a neighbor of layer d).
+ * At most MAX_FAN_IN runs are open at a time: while there are more, groups
+ * of them are merged into longer runs, so open files and read buffers are
+ * bounded whatever the size of the layer.
+ * Memory is the buffer and MERGE_BUFFER_BYTES; disk is the largest layers and the runs.
+ * Files are written aside and moved into place, and a manifest records the
+ * finished layers, so a search that stops (or crashes) continues from the
+ * last finished layer
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class ExternalBfs {
+    public static final int DEFAULT_RUN_STATES = 1 << 24; // 128 MB buffer
+
+    private static final String MANIFEST = "bfs.manifest";
+    private static final String RUN_PREFIX = "run-";
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final int MAX_FAN_IN = 128;
+    private static final int MERGE_BUFFER_BYTES = 1 << 24; // shared by the runs of a merge
+    private static final int MIN_READ_BYTES = 1 << 16;
+    private static final int MAX_VARINT_BYTES = 10;
+
+    /**
+     * One finished layer
+     *
+     * @param depth  number of moves from the winning position
+     * @param states number of boards at that depth
+     * @param bytes  size of the layer file
+     * @param nanos  time to build the layer
+     */
+    public record Layer(int depth, long states, long bytes, long nanos) {
+    }
+
+    private final Path dir;
+    private final int nLines;
+    private final int nCols;
+    private final int[][] neighborCells;
+    private final int runStates;
+    private final List<Layer> layers;
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private boolean complete;
+
+    /**
+     * Opens a search in dir, continuing the one already there, if any
+     *
+     * @param dir       directory of the layer files and the manifest
+     * @param nLines    number of lines, with nLines * nCols up to 16
+     * @param nCols     number of columns
+     * @param runStates number of boards sorted in memory at a time
+     * @throws IOException if dir cannot be used or holds a search of other board
+     */
+    public ExternalBfs(Path dir, int nLines, int nCols, int runStates) throws IOException {
+        if (nLines * nCols > PackedBoard.MAX_CELLS) {
+            throw new IllegalArgumentException("External search needs at most 16 cells");
+        }
+        this.dir = dir;
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.neighborCells = Model.createNeighborCells(nLines, nCols);
+        this.runStates = runStates;
+        this.layers = new ArrayList<>();
+        Files.createDirectories(dir);
+        this.loadManifest();
+        Metrics.gauge("bfs.bytes.read", this::bytesRead);
+        Metrics.gauge("bfs.bytes.written", this::bytesWritten);
+    }
+
+    /**
+     * Builds layers until all boards are found or the layer maxDepth exists
+     *
+     * @param maxDepth deepest layer to build
+     * @param progress receives each new layer
+     * @return all finished layers
+     * @throws IOException if a file cannot be read or written
+     */
+    public List<Layer> run(int maxDepth, Consumer<Layer> progress) throws IOException {
+        this.deleteTemporaryFiles();
+        if (this.layers.isEmpty()) {
+            long start = System.nanoTime();
+            try (RunWriter writer = new RunWriter(this.temporary(this.layerFile(0)), true)) {
+                writer.write(PackedBoard.goal(this.nLines * this.nCols));
+            }
+            this.finishLayer(0, 1, start, progress);
+        }
+        while (!this.complete && this.layers.size() <= maxDepth) {
+            this.expand(this.layers.size() - 1, progress);
+        }
+        return this.layers();
+    }
+
+    /**
+     * Builds layer depth + 1 from layer depth
+     */
+    private void expand(int depth, Consumer<Layer> progress) throws IOException {
+        long start = System.nanoTime();
+        List<Path> runs = new ArrayList<>();
+        long[] buffer = new long[this.runStates];
+        int n = 0;
+        int runNumber = 0;
+        try (RunReader layer = new RunReader(this.layerFile(depth))) {
+            while (layer.next()) {
+                long state = layer.value;
+                int empty = PackedBoard.emptyCellOf(state);
+                for (int cell : this.neighborCells[empty]) {
+                    long piece = (state >>> (cell << 2)) & PackedBoard.CELL_MASK;
+                    buffer[n++] = state ^ (piece << (cell << 2)) ^ (piece << (empty << 2));
+                    if (n == buffer.length) {
+                        runs.add(this.writeRun(buffer, n, runNumber++));
+                        n = 0;
+                    }
+                }
+            }
+        }
+        if (n > 0) {
+            runs.add(this.writeRun(buffer, n, runNumber++));
+        }
+        buffer = null; // the merge does not need it
+        while (runs.size() > MAX_FAN_IN) {
+            List<Path> merged = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                List<Path> group = runs.subList(i, Math.min(runs.size(), i + MAX_FAN_IN));
+                merged.add(group.size() == 1 ? group.get(0) : this.mergeRuns(group, runNumber++));
+            }
+            runs = merged;
+        }
+
+        Path file = this.layerFile(depth + 1);
+        long states = 0;
+        List<RunReader> readers = new ArrayList<>();
+        try (RunWriter writer = new RunWriter(this.temporary(file), true)) {
+            PriorityQueue<RunReader> queue = this.openRuns(runs, readers);
+            RunReader current = new RunReader(this.layerFile(depth));
+            readers.add(current);
+            RunReader previous = depth == 0 ? null : new RunReader(this.layerFile(depth - 1));
+            if (previous != null) {
+                readers.add(previous);
+            }
+            boolean hasCurrent = current.next();
+            boolean hasPrevious = previous != null && previous.next();
+            boolean first = true;
+            long last = 0;
+            while (!queue.isEmpty()) {
+                RunReader min = queue.poll();
+                long state = min.value;
+                if (min.next()) {
+                    queue.add(min);
+                }
+                if (!first && state == last) {
+                    continue;
+                }
+                first = false;
+                last = state;
+                while (hasCurrent && current.value < state) {
+                    hasCurrent = current.next();
+                }
+                while (hasPrevious && previous.value < state) {
+                    hasPrevious = previous.next();
+                }
+                if (hasCurrent && current.value == state || hasPrevious && previous.value == state) {
+                    continue;
+                }
+                writer.write(state);
+                states++;
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+        for (Path run : runs) {
+            Files.delete(run);
+        }
+        if (states == 0) {
+            Files.delete(this.temporary(file));
+            this.complete = true;
+            this.saveManifest();
+        } else {
+            this.finishLayer(depth + 1, states, start, progress);
+        }
+    }
+
+    /**
+     * Opens a reader for each run, with a share of MERGE_BUFFER_BYTES
+     *
+     * @param runs    the runs
+     * @param readers receives the readers, to be closed by the caller
+     * @return the readers that have a value, by ascending value
+     */
+    private PriorityQueue<RunReader> openRuns(List<Path> runs, List<RunReader> readers) throws IOException {
+        int bufferBytes = Math.max(MIN_READ_BYTES, MERGE_BUFFER_BYTES / Math.max(1, runs.size()));
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Comparator.comparingLong(r -> r.value));
+        for (Path run : runs) {
+            RunReader reader = new RunReader(run, bufferBytes);
+            readers.add(reader);
+            if (reader.next()) {
+                queue.add(reader);
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Merges runs into one run without repeated boards, deleting them
+     *
+     * @return the new run
+     */
+    private Path mergeRuns(List<Path> runs, int number) throws IOException {
+        Path merged = this.dir.resolve(RUN_PREFIX + number + ".bin");
+        List<RunReader> readers = new ArrayList<>();
+        try (RunWriter writer = new RunWriter(merged, false)) {
+            PriorityQueue<RunReader> queue = this.openRuns(runs, readers);
+            boolean first = true;
+            long last = 0;
+            while (!queue.isEmpty()) {
+                RunReader min = queue.poll();
+                long state = min.value;
+                if (min.next()) {
+                    queue.add(min);
+                }
+                if (first || state != last) {
+                    writer.write(state);
+                    first = false;
+                    last = state;
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+        for (Path run : runs) {
+            Files.delete(run);
+        }
+        return merged;
+    }
+
+    private Path writeRun(long[] buffer, int n, int number) throws IOException {
+        Arrays.sort(buffer, 0, n);
+        Path run = this.dir.resolve(RUN_PREFIX + number + ".bin");
+        try (RunWriter writer = new RunWriter(run, false)) {
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || buffer[i] != buffer[i - 1]) {
+                    writer.write(buffer[i]);
+                }
+            }
+        }
+        return run;
+    }
+
+    private void finishLayer(int depth, long states, long start, Consumer<Layer> progress) throws IOException {
+        Path file = this.layerFile(depth);
+        Layer layer = new Layer(depth, states, Files.size(this.temporary(file)), System.nanoTime() - start);
+        Files.move(this.temporary(file), file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.layers.add(layer);
+        this.saveManifest();
+        progress.accept(layer);
+    }
+
+    /**
+     * Calls action for each board of a finished layer, in ascending order
+     *
+     * @param depth  the layer
+     * @param action receives each packed board
+     * @throws IOException if the layer cannot be read
+     */
+    public void forEach(int depth, LongConsumer action) throws IOException {
+        if (depth >= this.layers.size()) {
+            throw new IllegalArgumentException("Layer " + depth + " is not built");
+        }
+        try (RunReader reader = new RunReader(this.layerFile(depth))) {
+            while (reader.next()) {
+                action.accept(reader.value);
+            }
+        }
+    }
+
+    private Path layerFile(int depth) {
+        return this.dir.resolve(String.format("layer-%03d.bin", depth));
+    }
+
+    private Path temporary(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    /**
+     * Deletes the runs and unfinished layers of a search that stopped
+     */
+    private void deleteTemporaryFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(RUN_PREFIX) || name.endsWith(".tmp")) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private void loadManifest() throws IOException {
+        Path file = this.dir.resolve(MANIFEST);
+        if (!Files.exists(file)) {
+            return;
+        }
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            manifest.load(in);
+        }
+        String size = this.nLines + "x" + this.nCols;
+        if (!size.equals(manifest.getProperty("size"))) {
+            throw new IOException("Search in " + this.dir + " is not for " + size);
+        }
+        int n = Integer.parseInt(manifest.getProperty("layers"));
+        for (int depth = 0; depth < n; depth++) {
+            String[] layer = manifest.getProperty("layer." + depth).split(" ");
+            this.layers.add(new Layer(depth, Long.parseLong(layer[0]), Long.parseLong(layer[1]),
+                    Long.parseLong(layer[2])));
+        }
+        this.complete = Boolean.parseBoolean(manifest.getProperty("complete"));
+    }
+
+    private void saveManifest() throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("size", this.nLines + "x" + this.nCols);
+        manifest.setProperty("layers", Integer.toString(this.layers.size()));
+        for (Layer layer : this.layers) {
+            manifest.setProperty("layer." + layer.depth(), layer.states() + " " + layer.bytes() + " " + layer.nanos());
+        }
+        manifest.setProperty("complete", Boolean.toString(this.complete));
+        Path file = this.dir.resolve(MANIFEST);
+        Path tmp = this.temporary(file);
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            manifest.store(out, "External BFS: states, bytes and nanoseconds of each layer");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the finished layers
+     */
+    public List<Layer> layers() {
+        return List.copyOf(this.layers);
+    }
+
+    /**
+     * @return true if every reachable board is in some layer
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    /**
+     * @return bytes read from layers and runs since this search was opened
+     */
+    public long bytesRead() {
+        return this.bytesRead.sum();
+    }
+
+    /**
+     * @return bytes written to layers and runs since this search was opened
+     */
+    public long bytesWritten() {
+        return this.bytesWritten.sum();
+    }
+
+    /**
+     * Writes ascending longs as varints of their differences
+     */
+    private final class RunWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final boolean durable;
+        private long previous = Long.MIN_VALUE;
+
+        /**
+         * @param durable true to force the file to disk when closed (runs need not be)
+         */
+        RunWriter(Path file, boolean durable) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.durable = durable;
+        }
+
+        void write(long value) throws IOException {
+            if (this.buffer.remaining() < MAX_VARINT_BYTES) {
+                this.flush();
+            }
+            long delta = value - this.previous; // unsigned, as values ascend
+            while ((delta & ~0x7FL) != 0) {
+                this.buffer.put((byte) (delta & 0x7F | 0x80));
+                delta >>>= 7;
+            }
+            this.buffer.put((byte) delta);
+            this.previous = value;
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                int n = this.channel.write(this.buffer);
+                ExternalBfs.this.bytesWritten.add(n);
+            }
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.flush();
+                if (this.durable) {
+                    this.channel.force(false); // on disk before the manifest says so
+                }
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the longs written by a RunWriter
+     */
+    private final class RunReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private boolean eof;
+        private long value = Long.MIN_VALUE;
+
+        RunReader(Path file) throws IOException {
+            this(file, BUFFER_BYTES);
+        }
+
+        /**
+         * @param bufferBytes size of the read buffer, at least MAX_VARINT_BYTES
+         */
+        RunReader(Path file, int bufferBytes) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+            this.buffer.flip(); // empty
+        }
+
+        /**
+         * @return true if there was a next value, now in value
+         */
+        boolean next() throws IOException {
+            if (this.buffer.remaining() < MAX_VARINT_BYTES && !this.eof) {
+                this.buffer.compact();
+                while (this.buffer.hasRemaining() && !this.eof) {
+                    int n = this.channel.read(this.buffer);
+                    if (n < 0) {
+                        this.eof = true;
+                    } else {
+                        ExternalBfs.this.bytesRead.add(n);
+                    }
+                }
+                this.buffer.flip();
+            }
+            if (!this.buffer.hasRemaining()) {
+                return false;
+            }
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = this.buffer.get();
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            this.value += delta;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Runs or continues a search, printing each layer
+     * Usage: ExternalBfs LxC dir [maxDepth] [runStates]
+     *
+     * @param args the board size, the directory, the deepest layer and the run size
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        BoardSize size = BoardSize.parse(args[0]);
+        int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : Integer.MAX_VALUE - 1;
+        int runStates = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_RUN_STATES;
+        ExternalBfs bfs = new ExternalBfs(Path.of(args[1]), size.lines(), size.cols(), runStates);
+        long start = System.nanoTime();
+        bfs.run(maxDepth, layer -> {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("depth %d: %d states, %d bytes, %.1f s; read %.1f MB/s, written %.1f MB/s%n",
+                    layer.depth(), layer.states(), layer.bytes(), layer.nanos() / 1e9,
+                    bfs.bytesRead() / 1e6 / seconds, bfs.bytesWritten() / 1e6 / seconds);
+        });
+        long total = bfs.layers().stream().mapToLong(Layer::states).sum();
+        System.out.printf("%s: %d layers, %d states%s%n", size, bfs.layers().size(), total,
+                bfs.isComplete() ? ", complete" : "");
+    }
+}
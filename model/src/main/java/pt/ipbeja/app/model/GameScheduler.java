@@ -0,0 +1,96 @@
+package pt.ipbeja.app.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads shared by all games: a scheduler for timer ticks and solve
+ * animations, a pool for solver searches and, for each parallelism, a
+ * fork/join pool for parallel searches. The number of threads does not
+ * depend on the number of games. All threads are daemons, so they do not keep
+ * the program running
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public final class GameScheduler {
+    private static final int TICK_THREADS = 2;
+    private static final ScheduledThreadPoolExecutor TICKS = createTicks();
+    private static final ExecutorService SOLVERS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), daemonThreads("fifteen-solver-"));
+    private static final Map<Integer, ForkJoinPool> PARALLEL = new ConcurrentHashMap<>();
+
+    private GameScheduler() {
+    }
+
+    private static ScheduledThreadPoolExecutor createTicks() {
+        ScheduledThreadPoolExecutor ticks = new ScheduledThreadPoolExecutor(TICK_THREADS,
+                daemonThreads("fifteen-tick-"));
+        ticks.setRemoveOnCancelPolicy(true); // cancelled games do not stay in the queue
+        return ticks;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Runs task every period, starting now
+     *
+     * @param task   short task (it must not block)
+     * @param period time between runs
+     * @param unit   unit of period
+     * @return the future to cancel the task
+     */
+    public static ScheduledFuture<?> every(Runnable task, long period, TimeUnit unit) {
+        return TICKS.scheduleAtFixedRate(task, 0, period, unit);
+    }
+
+    /**
+     * Runs task once after a delay
+     *
+     * @param task  short task (it must not block)
+     * @param delay time before running
+     * @param unit  unit of delay
+     * @return the future to cancel the task
+     */
+    public static ScheduledFuture<?> after(Runnable task, long delay, TimeUnit unit) {
+        return TICKS.schedule(task, delay, unit);
+    }
+
+    /**
+     * @return the pool for long computations such as solver searches
+     */
+    public static ExecutorService solvers() {
+        return SOLVERS;
+    }
+
+    /**
+     * @param parallelism number of threads
+     * @return the fork/join pool with that number of threads, shared by all
+     * parallel solvers (its threads are daemons)
+     */
+    public static ForkJoinPool parallelSolvers(int parallelism) {
+        return PARALLEL.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    /**
+     * @return number of tasks waiting in the scheduler
+     */
+    public static int pendingTicks() {
+        return TICKS.getQueue().size();
+    }
+}
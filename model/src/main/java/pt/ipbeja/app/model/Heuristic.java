@@ -0,0 +1,60 @@
+package pt.ipbeja.app.model;
+
+/**
+ * Admissible estimate of the number of moves needed to reach the winning position
+ * Boards are given as two views of the same state: tiles[cell] is the piece at
+ * cell and cells[piece] is the cell of piece (cells[EMPTY] is the empty cell)
+ * Implementations must be thread safe, as solvers may share them
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public interface Heuristic {
+
+    /**
+     * Computes the estimate for the whole board
+     *
+     * @param tiles piece at each cell
+     * @param cells cell of each piece
+     * @return lower bound of the number of moves to the winning position
+     */
+    int estimate(int[] tiles, int[] cells);
+
+    /**
+     * Computes the value a search carries from board to board with update
+     * By default it is the estimate; a heuristic may pack in it what update
+     * needs (e.g. partial sums), and then also overrides estimateOf
+     *
+     * @param tiles piece at each cell
+     * @param cells cell of each piece
+     * @return the value for this board
+     */
+    default int start(int[] tiles, int[] cells) {
+        return this.estimate(tiles, cells);
+    }
+
+    /**
+     * @param h value carried for a board (from start or update)
+     * @return the estimate of that board
+     */
+    default int estimateOf(int h) {
+        return h;
+    }
+
+    /**
+     * Computes the value carried after piece moved from cell from to cell to
+     * The move is already applied to tiles and cells
+     * By default the value is computed again for the whole board
+     *
+     * @param h     value carried before the move (from start or update)
+     * @param piece the moved piece
+     * @param from  cell where piece was
+     * @param to    cell where piece is now
+     * @param tiles piece at each cell
+     * @param cells cell of each piece
+     * @return the value carried after the move
+     */
+    default int update(int h, int piece, int from, int to, int[] tiles, int[] cells) {
+        return this.start(tiles, cells);
+    }
+}
@@ -0,0 +1,300 @@
+package pt.ipbeja.app.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded cache of board state to (distance to the goal, best move), shared by
+ * all models of a size
+ * Entries are kept in primitive arrays, in buckets of WAYS slots; a full bucket
+ * evicts with the CLOCK algorithm (a slot read since the hand last passed gets
+ * a second chance). Buckets are guarded by striped StampedLocks: a hit is an
+ * optimistic read, without writing to any lock
+ * The key of a board with up to 16 cells is its packed form, so it is exact;
+ * larger boards use their Zobrist hash. On square boards a board and its
+ * reflection on the main diagonal share the entry of the smaller key, so each
+ * entry covers two boards
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public final class HintCache {
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+    public static final int NONE = -1;
+
+    private static final int WAYS = 8;
+    private static final int STRIPES = 64;
+    private static final Map<BoardSize, HintCache> SHARED = new ConcurrentHashMap<>();
+
+    private final long[] keys;
+    private final int[] entries; // 0 if free, else distance << 3 | direction << 1 | 1
+    private final byte[] referenced;
+    private final byte[] hands;
+    private final int bucketBits;
+    private final StampedLock[] locks;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity maximum number of entries, rounded down to a power of two (at least WAYS)
+     */
+    public HintCache(int capacity) {
+        int buckets = Integer.highestOneBit(Math.max(WAYS, capacity) / WAYS);
+        this.bucketBits = Integer.numberOfTrailingZeros(buckets);
+        this.keys = new long[buckets * WAYS];
+        this.entries = new int[buckets * WAYS];
+        this.referenced = new byte[buckets * WAYS];
+        this.hands = new byte[buckets];
+        this.locks = new StampedLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.locks[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * @param size number of lines and columns
+     * @return the cache shared by all models of that size
+     */
+    public static HintCache shared(BoardSize size) {
+        return SHARED.computeIfAbsent(size, HintCache::createShared);
+    }
+
+    private static HintCache createShared(BoardSize size) {
+        HintCache cache = new HintCache(DEFAULT_CAPACITY);
+        String prefix = "hint.cache." + size + ".";
+        Metrics.gauge(prefix + "hits", cache::hits);
+        Metrics.gauge(prefix + "misses", cache::misses);
+        Metrics.gauge(prefix + "evictions", cache::evictions);
+        return cache;
+    }
+
+    /**
+     * @param tiles     piece at each cell
+     * @param stateHash Zobrist hash of tiles
+     * @return the key of the board
+     */
+    public static long keyOf(int[] tiles, long stateHash) {
+        return tiles.length <= PackedBoard.MAX_CELLS ? PackedBoard.pack(tiles) : stateHash;
+    }
+
+    /**
+     * @param entry an entry found by get
+     * @return number of moves to the goal
+     */
+    public static int distanceOf(int entry) {
+        return entry >>> 3;
+    }
+
+    /**
+     * @param entry an entry found by get
+     * @return direction of the empty cell in the best move, as in MoveHistory
+     */
+    public static int directionOf(int entry) {
+        return (entry >>> 1) & 3;
+    }
+
+    private static int entryOf(int distance, int direction) {
+        return distance << 3 | direction << 1 | 1;
+    }
+
+    /**
+     * @param symmetry reflection of boards of this size
+     * @param tiles    piece at each cell
+     * @param key      key of tiles
+     * @return the key of the reflection of tiles
+     */
+    private static long reflectedKeyOf(Symmetry symmetry, int[] tiles, long key) {
+        if (tiles.length <= PackedBoard.MAX_CELLS) {
+            return symmetry.reflect(key);
+        }
+        int[] reflected = symmetry.reflect(tiles);
+        return HintCache.keyOf(reflected, Zobrist.hash(reflected));
+    }
+
+    private int bucketOf(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return this.bucketBits == 0 ? 0 : (int) (mixed >>> (64 - this.bucketBits));
+    }
+
+    /**
+     * @param key key of a board
+     * @return the entry of the board, or NONE
+     */
+    public int get(long key) {
+        int bucket = this.bucketOf(key);
+        StampedLock lock = this.locks[bucket & (STRIPES - 1)];
+        long stamp = lock.tryOptimisticRead();
+        int entry = this.find(bucket, key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                entry = this.find(bucket, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        (entry == NONE ? this.misses : this.hits).increment();
+        return entry;
+    }
+
+    /**
+     * Finds a board or its reflection, when the board is square
+     *
+     * @param size      number of lines and columns
+     * @param tiles     piece at each cell
+     * @param stateHash Zobrist hash of tiles
+     * @return the entry of the board, with the direction of its own best move, or NONE
+     */
+    public int get(BoardSize size, int[] tiles, long stateHash) {
+        long key = HintCache.keyOf(tiles, stateHash);
+        Symmetry symmetry = Symmetry.of(size);
+        if (symmetry != null) {
+            long reflectedKey = HintCache.reflectedKeyOf(symmetry, tiles, key);
+            if (reflectedKey < key) {
+                int entry = this.get(reflectedKey);
+                return entry == NONE ? NONE
+                        : HintCache.entryOf(distanceOf(entry), Symmetry.direction(directionOf(entry)));
+            }
+        }
+        return this.get(key);
+    }
+
+    private int find(int bucket, long key) {
+        int first = bucket * WAYS;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            int entry = this.entries[slot];
+            if (entry != 0 && this.keys[slot] == key) {
+                this.referenced[slot] = 1;
+                return entry;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Adds or replaces the entry of a board
+     *
+     * @param key       key of the board
+     * @param distance  number of moves to the goal
+     * @param direction direction of the empty cell in the best move, as in MoveHistory
+     */
+    public void put(long key, int distance, int direction) {
+        int entry = HintCache.entryOf(distance, direction);
+        int bucket = this.bucketOf(key);
+        StampedLock lock = this.locks[bucket & (STRIPES - 1)];
+        long stamp = lock.writeLock();
+        try {
+            int slot = this.slotFor(bucket, key);
+            this.keys[slot] = key;
+            this.entries[slot] = entry;
+            this.referenced[slot] = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the slot of key, a free slot or the slot chosen by the clock hand
+     */
+    private int slotFor(int bucket, long key) {
+        int first = bucket * WAYS;
+        int free = -1;
+        for (int slot = first; slot < first + WAYS; slot++) {
+            if (this.entries[slot] == 0) {
+                free = free < 0 ? slot : free;
+            } else if (this.keys[slot] == key) {
+                return slot;
+            }
+        }
+        if (free >= 0) {
+            return free;
+        }
+        int hand = this.hands[bucket];
+        while (this.referenced[first + hand] != 0) {
+            this.referenced[first + hand] = 0; // second chance
+            hand = (hand + 1) % WAYS;
+        }
+        this.hands[bucket] = (byte) ((hand + 1) % WAYS);
+        this.evictions.increment();
+        return first + hand;
+    }
+
+    /**
+     * Adds every board of an optimal solution: the board after i moves is at
+     * distance length - i and its best move is move i; on square boards each
+     * is kept under the smaller key of the board and its reflection
+     *
+     * @param size      number of lines and columns
+     * @param tiles     the first board (not changed)
+     * @param stateHash Zobrist hash of tiles
+     * @param moves     an optimal solution of tiles
+     */
+    public void putSolution(BoardSize size, int[] tiles, long stateHash, List<Move> moves) {
+        Symmetry symmetry = Symmetry.of(size);
+        int[] board = tiles.clone();
+        long hash = stateHash;
+        for (int i = 0; i < moves.size(); i++) {
+            Move m = moves.get(i);
+            int from = size.cellOf(m.begin());
+            int to = size.cellOf(m.end());
+            long key = HintCache.keyOf(board, hash);
+            int direction = directionOfEmpty(to, from, size.cols());
+            long reflectedKey = symmetry == null ? key : HintCache.reflectedKeyOf(symmetry, board, key);
+            if (reflectedKey < key) {
+                this.put(reflectedKey, moves.size() - i, Symmetry.direction(direction));
+            } else {
+                this.put(key, moves.size() - i, direction);
+            }
+            int piece = board[from];
+            board[to] = piece;
+            board[from] = Model.EMPTY;
+            hash = Zobrist.move(hash, piece, from, to);
+        }
+    }
+
+    private static int directionOfEmpty(int from, int to, int nCols) {
+        int delta = to - from;
+        return delta == -nCols ? MoveHistory.UP
+                : delta == -1 ? MoveHistory.LEFT
+                : delta == 1 ? MoveHistory.RIGHT
+                : MoveHistory.DOWN;
+    }
+
+    /**
+     * @return number of gets that found the board
+     */
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return number of gets that did not find the board
+     */
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return number of entries replaced to make room for others
+     */
+    public long evictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return maximum number of entries
+     */
+    public int capacity() {
+        return this.entries.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hint cache: capacity %d, hits %d, misses %d, evictions %d",
+                this.capacity(), this.hits(), this.misses(), this.evictions());
+    }
+}
@@ -0,0 +1,118 @@
+package pt.ipbeja.app.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non negative values (e.g. nanoseconds) with fixed memory
+ * Each power of two is split in SUB_BUCKETS linear buckets, so percentiles
+ * have a relative error below 1 / SUB_BUCKETS. Recording is thread safe
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class Histogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong total;
+    private final AtomicLong sum;
+    private final AtomicLong max;
+
+    public Histogram() {
+        this.counts = new AtomicLongArray((64 - SUB_BITS + 1) * SUB_BUCKETS);
+        this.total = new AtomicLong();
+        this.sum = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records one value
+     *
+     * @param value the value, negative values count as zero
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        this.counts.incrementAndGet(bucketOf(value));
+        this.total.incrementAndGet();
+        this.sum.addAndGet(value);
+        long max = this.max.get();
+        while (value > max && !this.max.compareAndSet(max, value)) {
+            max = this.max.get(); // no method reference: one less call site to link at start up
+        }
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @return the highest value of the bucket that holds the given percentile
+     */
+    public long percentile(double percentile) {
+        long n = this.total.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int bucket = 0; bucket < this.counts.length(); bucket++) {
+            seen += this.counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestOf(bucket), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long count() {
+        return this.total.get();
+    }
+
+    /**
+     * @return mean of the recorded values
+     */
+    public double mean() {
+        long n = this.total.get();
+        return n == 0 ? 0 : (double) this.sum.get() / n;
+    }
+
+    /**
+     * @return largest recorded value
+     */
+    public long max() {
+        return this.max.get();
+    }
+
+    /**
+     * Forgets all values
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < this.counts.length(); bucket++) {
+            this.counts.set(bucket, 0);
+        }
+        this.total.set(0);
+        this.sum.set(0);
+        this.max.set(0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long highestOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lowest = (1L << exponent) + (sub << (exponent - SUB_BITS));
+        return lowest + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
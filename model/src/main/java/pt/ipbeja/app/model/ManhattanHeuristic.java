@@ -0,0 +1,159 @@
+package pt.ipbeja.app.model;
+
+/**
+ * Sum of the Manhattan distances of each piece to its winning cell,
+ * optionally with linear conflicts: two pieces in their winning line (or column)
+ * but in reversed order need at least two more moves
+ * Conflicts are read from tables indexed by the content of each line
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class ManhattanHeuristic implements Heuristic {
+    private final int nLines;
+    private final int nCols;
+    private final boolean linearConflict;
+
+    private final int[][] distance; // [piece][cell]
+    private final int[] goalLine;   // [piece]
+    private final int[] goalCol;    // [piece]
+    private final byte[] lineConflicts;
+    private final byte[] colConflicts;
+
+    /**
+     * Manhattan distance with linear conflicts for the default board
+     */
+    public ManhattanHeuristic() {
+        this(Model.N_LINES, Model.N_COLS, true);
+    }
+
+    /**
+     * @param nLines         number of lines of the board
+     * @param nCols          number of columns of the board
+     * @param linearConflict true to add linear conflicts to the distance
+     */
+    public ManhattanHeuristic(int nLines, int nCols, boolean linearConflict) {
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.linearConflict = linearConflict;
+        int nCells = nLines * nCols;
+        this.distance = new int[nCells][nCells];
+        this.goalLine = new int[nCells];
+        this.goalCol = new int[nCells];
+        for (int piece = 1; piece < nCells; piece++) {
+            this.goalLine[piece] = (piece - 1) / nCols;
+            this.goalCol[piece] = (piece - 1) % nCols;
+            for (int cell = 0; cell < nCells; cell++) {
+                this.distance[piece][cell] = Math.abs(cell / nCols - this.goalLine[piece]) +
+                        Math.abs(cell % nCols - this.goalCol[piece]);
+            }
+        }
+        this.lineConflicts = linearConflict ? createConflictTable(nCols) : null;
+        this.colConflicts = linearConflict ? createConflictTable(nLines) : null;
+    }
+
+    @Override
+    public int estimate(int[] tiles, int[] cells) {
+        int h = 0;
+        for (int piece = 1; piece < cells.length; piece++) {
+            h += this.distance[piece][cells[piece]];
+        }
+        if (this.linearConflict) {
+            int conflicts = 0;
+            for (int line = 0; line < this.nLines; line++) {
+                conflicts += this.lineConflictsAt(line, tiles);
+            }
+            for (int col = 0; col < this.nCols; col++) {
+                conflicts += this.colConflictsAt(col, tiles);
+            }
+            h += 2 * conflicts;
+        }
+        return h;
+    }
+
+    @Override
+    public int update(int h, int piece, int from, int to, int[] tiles, int[] cells) {
+        h += this.distance[piece][to] - this.distance[piece][from];
+        if (this.linearConflict) {
+            // a piece moving along its line keeps the order of that line,
+            // so only the lines (or columns) it left and entered change
+            boolean horizontal = from / this.nCols == to / this.nCols;
+            int after = this.conflictsAround(horizontal, from, to, tiles);
+            tiles[from] = piece;
+            tiles[to] = Model.EMPTY;
+            int before = this.conflictsAround(horizontal, from, to, tiles);
+            tiles[from] = Model.EMPTY;
+            tiles[to] = piece;
+            h += 2 * (after - before);
+        }
+        return h;
+    }
+
+    private int conflictsAround(boolean horizontal, int from, int to, int[] tiles) {
+        if (horizontal) {
+            return this.colConflictsAt(from % this.nCols, tiles) + this.colConflictsAt(to % this.nCols, tiles);
+        }
+        return this.lineConflictsAt(from / this.nCols, tiles) + this.lineConflictsAt(to / this.nCols, tiles);
+    }
+
+    private int lineConflictsAt(int line, int[] tiles) {
+        int index = 0;
+        for (int col = 0; col < this.nCols; col++) {
+            int piece = tiles[line * this.nCols + col];
+            int digit = piece != Model.EMPTY && this.goalLine[piece] == line ? this.goalCol[piece] : this.nCols;
+            index = index * (this.nCols + 1) + digit;
+        }
+        return this.lineConflicts[index];
+    }
+
+    private int colConflictsAt(int col, int[] tiles) {
+        int index = 0;
+        for (int line = 0; line < this.nLines; line++) {
+            int piece = tiles[line * this.nCols + col];
+            int digit = piece != Model.EMPTY && this.goalCol[piece] == col ? this.goalLine[piece] : this.nLines;
+            index = index * (this.nLines + 1) + digit;
+        }
+        return this.colConflicts[index];
+    }
+
+    /**
+     * Creates the conflict table for lines of given length. Each line is coded
+     * in base length + 1, one digit per cell: the winning offset of the piece in
+     * that cell, or length for the empty or for a piece of other line.
+     * The number of conflicts is the number of pieces that must leave the line
+     * so that the others are in order (pieces minus longest increasing sequence)
+     *
+     * @param length number of cells of the line
+     * @return the number of conflicts for each line code
+     */
+    private static byte[] createConflictTable(int length) {
+        int base = length + 1;
+        int size = 1;
+        for (int i = 0; i < length; i++) {
+            size *= base;
+        }
+        byte[] table = new byte[size];
+        int[] digits = new int[length];
+        int[] longest = new int[length];
+        for (int index = 0; index < size; index++) {
+            int n = 0;
+            for (int code = index, i = 0; i < length; i++, code /= base) {
+                if (code % base < length) {
+                    digits[n++] = code % base; // reversed order, so longest decreasing
+                }
+            }
+            int best = 0;
+            for (int i = 0; i < n; i++) {
+                longest[i] = 1;
+                for (int j = 0; j < i; j++) {
+                    if (digits[j] > digits[i] && longest[j] + 1 > longest[i]) {
+                        longest[i] = longest[j] + 1;
+                    }
+                }
+                best = Math.max(best, longest[i]);
+            }
+            table[index] = (byte) (n - best);
+        }
+        return table;
+    }
+}
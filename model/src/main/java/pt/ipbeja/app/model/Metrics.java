@@ -0,0 +1,207 @@
+package pt.ipbeja.app.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the counters and histograms of all games: moves, view
+ * notifications, timer drift, solver work and solve times
+ * Metrics are off unless the property fifteen.metrics is true or enable is
+ * called; when off, counting is one read of a volatile flag and no clock is read.
+ * Other counters, histograms and gauges (values read when dumped, such as the
+ * hint cache counters) can be registered by name, and the text dump can be
+ * sent anywhere, periodically
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public final class Metrics {
+    private static volatile boolean enabled = Boolean.getBoolean("fifteen.metrics");
+
+    private static final Map<String, Object> REGISTRY = new ConcurrentSkipListMap<>();
+
+    public static final Counter MOVES = counter("moves");
+    public static final Counter SCRAMBLES = counter("scrambles");
+    public static final Counter SOLVES = counter("solves");
+    public static final Counter SOLVER_NODES = counter("solver.nodes");
+    public static final Counter HEURISTIC_EVALUATIONS = counter("heuristic.evaluations");
+    public static final Timer NOTIFY_VIEW = timer("notify.view.nanos");
+    public static final Timer TIMER_DRIFT = timer("timer.drift.nanos");
+    public static final Timer SOLVE_TIME = timer("solve.nanos");
+
+    private Metrics() {
+    }
+
+    /**
+     * Counter that only counts while metrics are on
+     */
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+
+        private Counter() {
+        }
+
+        /**
+         * Adds one
+         */
+        public void increment() {
+            if (enabled) {
+                this.adder.increment();
+            }
+        }
+
+        /**
+         * @param n value to add
+         */
+        public void add(long n) {
+            if (enabled) {
+                this.adder.add(n);
+            }
+        }
+
+        /**
+         * @return the sum of all values added
+         */
+        public long sum() {
+            return this.adder.sum();
+        }
+    }
+
+    /**
+     * Histogram of durations that only records while metrics are on
+     * Usage: long start = timer.start(); ... timer.stop(start);
+     */
+    public static final class Timer {
+        private final Histogram histogram = new Histogram();
+
+        private Timer() {
+        }
+
+        /**
+         * @return the current time, or 0 if metrics are off
+         */
+        public long start() {
+            return enabled ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Records the time since start, if start was taken with metrics on
+         *
+         * @param start value returned by start
+         */
+        public void stop(long start) {
+            if (start != 0) {
+                this.histogram.record(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * @param nanos duration to record
+         */
+        public void record(long nanos) {
+            if (enabled) {
+                this.histogram.record(nanos);
+            }
+        }
+
+        /**
+         * @return the recorded durations
+         */
+        public Histogram histogram() {
+            return this.histogram;
+        }
+    }
+
+    /**
+     * @return true if metrics are being collected
+     */
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * @param on true to collect metrics, false to stop
+     */
+    public static void enable(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * @param name name of the counter
+     * @return the counter with that name, registered if new
+     */
+    public static Counter counter(String name) {
+        REGISTRY.putIfAbsent(name, new Counter()); // not computeIfAbsent: no lambda to link at class init
+        return (Counter) REGISTRY.get(name);
+    }
+
+    /**
+     * @param name name of the timer
+     * @return the timer with that name, registered if new
+     */
+    public static Timer timer(String name) {
+        REGISTRY.putIfAbsent(name, new Timer());
+        return (Timer) REGISTRY.get(name);
+    }
+
+    /**
+     * Registers a value that is read only when dumped
+     *
+     * @param name  name of the value
+     * @param value supplier of the value, replacing any other with the same name
+     */
+    public static void gauge(String name, LongSupplier value) {
+        REGISTRY.put(name, value);
+    }
+
+    /**
+     * @return all metrics by name, in name order
+     */
+    public static Map<String, Object> registry() {
+        return REGISTRY;
+    }
+
+    /**
+     * @return one line for each metric: counters and gauges with their value,
+     * timers with count, mean, percentiles and maximum in microseconds
+     */
+    public static String dump() {
+        StringBuilder s = new StringBuilder();
+        REGISTRY.forEach((name, metric) -> {
+            if (metric instanceof Counter counter) {
+                s.append(String.format("%s %d%n", name, counter.sum()));
+            } else if (metric instanceof LongSupplier gauge) {
+                s.append(String.format("%s %d%n", name, gauge.getAsLong()));
+            } else if (metric instanceof Timer timer) {
+                Histogram h = timer.histogram();
+                s.append(String.format("%s count %d, mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                        name, h.count(), h.mean() / 1e3, h.percentile(50) / 1e3,
+                        h.percentile(99) / 1e3, h.max() / 1e3));
+            }
+        });
+        return s.toString();
+    }
+
+    /**
+     * Sends the dump to out every period, with the moves per second since the last dump
+     *
+     * @param out    receives each dump (e.g. System.out::print)
+     * @param period time between dumps
+     * @param unit   unit of period
+     * @return the future to cancel the dumps
+     */
+    public static ScheduledFuture<?> dumpEvery(Consumer<String> out, long period, TimeUnit unit) {
+        double seconds = unit.toNanos(period) / 1e9;
+        long[] lastMoves = {MOVES.sum()};
+        return GameScheduler.every(() -> {
+            long moves = MOVES.sum();
+            out.accept(String.format("moves/s %.1f%n%s", (moves - lastMoves[0]) / seconds, Metrics.dump()));
+            lastMoves[0] = moves;
+        }, period, unit);
+    }
+}
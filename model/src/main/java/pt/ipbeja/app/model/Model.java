@@ -0,0 +1,1068 @@
+package pt.ipbeja.app.model;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringTokenizer;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The fifteen puzzle model
+ * Every change runs as a command of a CommandLoop, one at a time, whatever
+ * thread asks for it (user interface, timer, solve animation); after each
+ * command an immutable Snapshot is published and all readers use it
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class Model {
+    public static final int N_LINES = 4;
+    public static final int N_COLS = 4;
+    public static final int EMPTY = 0;
+
+    private final static Random RAND = new Random();
+    private final static int[][] NEIGHBORS = {{-1, 0}, {0, -1}, {0, 1}, {1, 0}};
+
+    private final static Map<BoardSize, Heuristic> DEFAULT_HEURISTICS = new ConcurrentHashMap<>();
+    private final static long SOLVER_MAX_NODES = 200_000_000L;
+    private final static int LOOP_WINDOW = 1 << 8; // last stored moves searched for a loop
+
+    private final BoardSize size;
+    private final int[][] neighborCells;
+    private final Board board;
+
+    private final MoveHistory moves;
+    private final StateIndex visited; // board key -> number of stored moves that reach it, in the window
+    private final long[] recent;      // board key after n stored moves, at n % LOOP_WINDOW
+    private Move lastMove;
+    private final CommandLoop loop;
+    private volatile Snapshot snapshot;
+
+    private ScheduledFuture<?> ticking;
+    private long timerStart;
+    private int timerValue;
+    private Playback playback;
+
+    private View view;
+    private volatile Heuristic heuristic;
+    private volatile int parallelism;
+    private volatile ParallelSolver parallelSolver; // for heuristic and parallelism, on a shared pool
+    private volatile BidirectionalSolver bidirectionalSolver; // for heuristic and cap, its maps reused
+    private volatile StateTable stateTable;
+    private volatile EndgameTable endgameTable;
+    private volatile long solveDeadline; // milliseconds, 0 for optimal solutions
+    private volatile long bidirectionalCap; // bytes, 0 for heuristic search
+
+    /**
+     * Creates board in winning position
+     */
+    public Model(View view) {
+        this(view, BoardSize.DEFAULT);
+    }
+
+    /**
+     * Creates board of given size in winning position
+     *
+     * @param size number of lines and columns
+     */
+    public Model(View view, BoardSize size) {
+        this.size = size;
+        this.neighborCells = Model.createNeighborCells(size.lines(), size.cols());
+        this.board = Board.create(size.cells());
+        this.moves = new MoveHistory();
+        this.visited = new StateIndex();
+        this.recent = new long[LOOP_WINDOW];
+        this.loop = new CommandLoop();
+        this.resetBoard();
+        this.clearMoves();
+        this.view = view;
+        this.heuristic = Model.defaultHeuristic(size);
+        this.parallelism = 1;
+        this.publish();
+    }
+
+    /**
+     * Creates a random mixed board starting from a winning position
+     *
+     * @param minIter        minimum number of iterations to mix board
+     * @param additionalIter maximum number of additional iterations to mix board
+     */
+    public Model(View view, int minIter, int additionalIter) {
+        this(view, BoardSize.DEFAULT, minIter, additionalIter);
+    }
+
+    /**
+     * Creates a random mixed board of given size starting from a winning position
+     *
+     * @param size           number of lines and columns
+     * @param minIter        minimum number of iterations to mix board
+     * @param additionalIter maximum number of additional iterations to mix board
+     */
+    public Model(View view, BoardSize size, int minIter, int additionalIter) {
+        this(view, size); // call constructor Fifteen(view, size)
+        this.mix(minIter, additionalIter);
+        this.resetTimer();
+        this.startTimer();
+    }
+
+    /**
+     * Puts the board in the winning position (numbers in sequence)
+     */
+    private void resetBoard() {
+        this.board.reset();
+    }
+
+    /**
+     * Manhattan distance with linear conflicts, shared by all models of a size
+     *
+     * @param size number of lines and columns
+     * @return the heuristic
+     */
+    static Heuristic defaultHeuristic(BoardSize size) {
+        return DEFAULT_HEURISTICS.computeIfAbsent(size,
+                s -> new ManhattanHeuristic(s.lines(), s.cols(), true));
+    }
+
+    /**
+     * Computes, for each cell, the cells reachable in one move
+     *
+     * @param nLines number of lines
+     * @param nCols  number of columns
+     * @return the neighbor cells of each cell
+     */
+    static int[][] createNeighborCells(int nLines, int nCols) {
+        int[][] neighbors = new int[nLines * nCols][];
+        for (int cell = 0; cell < neighbors.length; cell++) {
+            int line = cell / nCols;
+            int col = cell % nCols;
+            int[] cells = new int[NEIGHBORS.length];
+            int n = 0;
+            for (int[] delta : NEIGHBORS) {
+                int l = line + delta[0];
+                int c = col + delta[1];
+                if (0 <= l && l < nLines && 0 <= c && c < nCols) {
+                    cells[n++] = l * nCols + c;
+                }
+            }
+            neighbors[cell] = Arrays.copyOf(cells, n);
+        }
+        return neighbors;
+    }
+
+    /**
+     * @return fifteen board content in text form
+     */
+    public String toString() {
+        Snapshot current = this.snapshot;
+        StringBuilder s = new StringBuilder();
+        for (int line = 0; line < this.size.lines(); line++) {
+            for (int col = 0; col < this.size.cols(); col++) {
+                s.append(String.format("%2d ", current.pieceAt(line * this.size.cols() + col)));
+            }
+            s.setLength(s.length() - 1); // remove last space
+            s.append("\n");
+        }
+        return s.toString();
+    }
+
+    /**
+     * Reads a board in the layout of toString: the pieces in line order,
+     * separated by spaces and/or new lines
+     *
+     * @param text the board
+     * @return the piece at each cell (line * N_COLS + col)
+     * @throws IllegalArgumentException if text does not have each piece once
+     */
+    public static int[] parseBoard(String text) {
+        return Model.parseBoard(text, BoardSize.DEFAULT);
+    }
+
+    /**
+     * Reads a board of given size in the layout of toString
+     *
+     * @param text the board
+     * @param size number of lines and columns
+     * @return the piece at each cell (line * cols + col)
+     * @throws IllegalArgumentException if text does not have each piece once
+     */
+    public static int[] parseBoard(String text, BoardSize size) {
+        int nCells = size.cells();
+        // a tokenizer and not split("\\s+"), which compiles a regex on the first board
+        StringTokenizer numbers = new StringTokenizer(text);
+        if (numbers.countTokens() != nCells) {
+            throw new IllegalArgumentException("Board needs " + nCells + " pieces: " + text);
+        }
+        int[] tiles = new int[nCells];
+        for (int cell = 0; cell < nCells; cell++) {
+            tiles[cell] = Integer.parseInt(numbers.nextToken());
+        }
+        Model.checkPieces(tiles, size);
+        return tiles;
+    }
+
+    /**
+     * Checks that tiles has each piece of a board of given size once
+     *
+     * @param tiles piece at each cell
+     * @param size  number of lines and columns
+     * @throws IllegalArgumentException if a piece is missing, repeated or invalid
+     */
+    private static void checkPieces(int[] tiles, BoardSize size) {
+        if (tiles.length != size.cells()) {
+            throw new IllegalArgumentException("Board needs " + size.cells() + " pieces");
+        }
+        boolean[] seen = new boolean[tiles.length];
+        for (int piece : tiles) {
+            if (piece < 0 || piece >= tiles.length || seen[piece]) {
+                throw new IllegalArgumentException("Invalid or repeated piece " + piece);
+            }
+            seen[piece] = true;
+        }
+    }
+
+    /**
+     * Checks if the winning position can be reached from a board, in O(cells)
+     * Each move swaps the empty with a piece, so it changes the parity of the
+     * permutation of cells and the parity of the distance from the empty to
+     * its winning cell: the board is solvable if both parities are equal
+     * The parity of the permutation is the number of cells minus its cycles
+     *
+     * @param tiles piece at each cell (line * cols + col), each piece once
+     * @param size  number of lines and columns
+     * @return true if the board is solvable
+     */
+    public static boolean isSolvable(int[] tiles, BoardSize size) {
+        int nCells = size.cells();
+        boolean[] visited = new boolean[nCells];
+        int cycles = 0;
+        int empty = 0;
+        for (int cell = 0; cell < nCells; cell++) {
+            if (tiles[cell] == EMPTY) {
+                empty = cell;
+            }
+            if (!visited[cell]) {
+                cycles++;
+                for (int c = cell; !visited[c]; c = Model.goalCellOf(tiles[c], nCells)) {
+                    visited[c] = true;
+                }
+            }
+        }
+        int emptyDistance = (size.lines() - 1 - empty / size.cols()) + (size.cols() - 1 - empty % size.cols());
+        return (nCells - cycles) % 2 == emptyDistance % 2;
+    }
+
+    /**
+     * @param piece  a piece or EMPTY
+     * @param nCells number of cells
+     * @return the cell of piece in the winning position
+     */
+    private static int goalCellOf(int piece, int nCells) {
+        return piece == EMPTY ? nCells - 1 : piece - 1;
+    }
+
+    /**
+     * Creates a solvable board chosen uniformly among all solvable boards
+     * A random permutation is drawn (Fisher-Yates); if it is not solvable,
+     * pieces 1 and 2 are swapped, which maps unsolvable boards one to one
+     * onto solvable boards
+     *
+     * @param size   number of lines and columns
+     * @param random source of randomness
+     * @return piece at each cell
+     */
+    public static int[] randomSolvableTiles(BoardSize size, Random random) {
+        int nCells = size.cells();
+        int[] tiles = new int[nCells];
+        for (int cell = 0; cell < nCells; cell++) {
+            tiles[cell] = cell;
+        }
+        for (int i = nCells - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int aux = tiles[i];
+            tiles[i] = tiles[j];
+            tiles[j] = aux;
+        }
+        if (!Model.isSolvable(tiles, size)) {
+            int cell1 = 0;
+            int cell2 = 0;
+            for (int cell = 0; cell < nCells; cell++) {
+                if (tiles[cell] == 1) cell1 = cell;
+                if (tiles[cell] == 2) cell2 = cell;
+            }
+            tiles[cell1] = 2;
+            tiles[cell2] = 1;
+        }
+        return tiles;
+    }
+
+    /**
+     * Puts the board in a random solvable position, chosen uniformly
+     * The stored moves are cleared
+     */
+    public void shuffle() {
+        this.setBoard(Model.randomSolvableTiles(this.size, RAND));
+    }
+
+    /**
+     * Puts the given pieces on the board; the stored moves are cleared
+     *
+     * @param tiles piece at each cell (line * cols + col)
+     * @throws IllegalArgumentException if tiles is not a solvable board of this size
+     */
+    public void setBoard(int[] tiles) {
+        Model.checkPieces(tiles, this.size);
+        if (!Model.isSolvable(tiles, this.size)) {
+            throw new IllegalArgumentException("Board is not solvable");
+        }
+        this.loop.run(() -> {
+            this.stopPlayback();
+            this.board.setTiles(tiles);
+            this.clearMoves();
+            this.lastMove = null;
+            this.publish();
+        });
+    }
+
+    /**
+     * get piece at given position
+     *
+     * @param position to get piece
+     * @return the piece at position
+     */
+    public int pieceAt(Position position) {
+        return this.snapshot.pieceAt(position);
+    }
+
+    /**
+     * get piece at given position
+     *
+     * @param position to get piece
+     * @return the text for the piece at position
+     */
+    public String pieceTextAt(Position position) {
+        int i = this.pieceAt(position);
+        return i == EMPTY ? "empty" : (i + "");
+    }
+
+    /**
+     * mixes the puzzle with random moves
+     *
+     * @param minMoves minimum of moves
+     * @param maxMoves maximum of moves
+     */
+    public void mix(int minMoves, int maxMoves) {
+        assert (minMoves <= maxMoves);
+        int nMoves = minMoves + RAND.nextInt(maxMoves - minMoves + 1);
+
+        this.loop.run(() -> {
+            this.stopPlayback();
+            ScrambleEvent event = new ScrambleEvent();
+            event.begin();
+            for (int i = 0; i < nMoves; i++) {
+                int emptyBefore = this.board.emptyCell();
+                int emptyAfter = this.randomlySelectNeighborOf(emptyBefore);
+                this.board.moveEmptyTo(emptyAfter);
+                this.storeMove(this.directionOf(emptyBefore, emptyAfter));
+                this.lastMove = new Move(this.size.positionOf(emptyAfter), this.size.positionOf(emptyBefore));
+            }
+            this.publish();
+            Metrics.SCRAMBLES.increment();
+            if (event.shouldCommit()) {
+                event.size = this.size.toString();
+                event.moves = nMoves;
+                event.commit();
+            }
+        });
+    }
+
+    /**
+     * Solve the puzzle with an optimal solution from the current board
+     */
+    public void solve() {
+        this.unmix(500);
+    }
+
+    /**
+     * Finds an optimal solution from the current board (the board is not changed),
+     * or the best one found within the solve deadline, if one is set
+     *
+     * @return the solution or null if the solver gave up
+     */
+    public Solution findSolution() {
+        return this.findSolution(this.tiles());
+    }
+
+    private Solution findSolution(int[] tiles) {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long start = Metrics.SOLVE_TIME.start();
+        Solution solution;
+        EndgameTable endgame = this.endgameTable;
+        StateTable table = this.stateTable;
+        if (endgame != null && (solution = endgame.solve(tiles)) != null) {
+            event.solver = "endgame"; // near the goal: a walk of lookups
+        } else if (table != null) {
+            event.solver = "table";
+            solution = table.solve(tiles);
+        } else if (this.solveDeadline > 0) {
+            event.solver = "anytime";
+            AnytimeSolver solver = new AnytimeSolver(this.size.lines(), this.size.cols(), this.heuristic);
+            solution = solver.solve(tiles, this.solveDeadline, TimeUnit.MILLISECONDS).solution();
+        } else if (this.bidirectionalCap > 0) {
+            event.solver = "bidirectional";
+            BidirectionalSolver solver = this.bidirectionalSolver();
+            synchronized (solver) { // one search at a time in its maps
+                solution = solver.solve(tiles);
+            }
+        } else if (this.parallelism > 1) {
+            event.solver = "parallel";
+            solution = this.parallelSolver().solve(tiles);
+        } else {
+            event.solver = "ida*";
+            Solver solver = new Solver(this.size.lines(), this.size.cols(), this.heuristic, SOLVER_MAX_NODES);
+            solution = solver.solve(tiles);
+        }
+        Metrics.SOLVE_TIME.stop(start);
+        Metrics.SOLVES.increment();
+        if (solution != null) {
+            Metrics.SOLVER_NODES.add(solution.nodesExpanded());
+        }
+        if (event.shouldCommit()) {
+            event.size = this.size.toString();
+            event.length = solution == null ? -1 : solution.length();
+            event.nodes = solution == null ? 0 : solution.nodesExpanded();
+            event.commit();
+        }
+        return solution;
+    }
+
+    /**
+     * @return the parallel solver for the current heuristic and parallelism,
+     * kept between solves; its threads are shared by all models
+     */
+    private ParallelSolver parallelSolver() {
+        ParallelSolver solver = this.parallelSolver;
+        Heuristic h = this.heuristic;
+        int threads = this.parallelism;
+        if (solver == null || solver.getHeuristic() != h || solver.getParallelism() != threads) {
+            solver = new ParallelSolver(this.size.lines(), this.size.cols(), h,
+                    GameScheduler.parallelSolvers(threads));
+            this.parallelSolver = solver;
+        }
+        return solver;
+    }
+
+    /**
+     * @return the bidirectional solver for the current heuristic and cap,
+     * kept between solves so its off-heap maps are cleared instead of reallocated
+     */
+    private BidirectionalSolver bidirectionalSolver() {
+        BidirectionalSolver solver = this.bidirectionalSolver;
+        Heuristic h = this.heuristic;
+        long cap = this.bidirectionalCap;
+        if (solver == null || solver.getFallback().getHeuristic() != h || solver.getMemoryCap() != cap) {
+            Solver fallback = new Solver(this.size.lines(), this.size.cols(), h, SOLVER_MAX_NODES);
+            solver = new BidirectionalSolver(this.size.lines(), this.size.cols(), cap, fallback);
+            this.bidirectionalSolver = solver;
+        }
+        return solver;
+    }
+
+    /**
+     * Finds the first move of an optimal solution (the board is not changed)
+     * The answer comes from the HintCache of this size; on a miss the board
+     * is solved and every board of the solution is added to the cache, so
+     * the next hints along the solution are hits
+     *
+     * @return the move of the piece to select, or null if the board is in the
+     * winning position or the solver gave up
+     */
+    public Move hint() {
+        Snapshot current = this.snapshot;
+        if (current.isWinning()) {
+            return null;
+        }
+        HintCache cache = HintCache.shared(this.size);
+        int[] tiles = current.tiles();
+        int entry = cache.get(this.size, tiles, current.stateHash());
+        if (entry == HintCache.NONE) {
+            Solution solution = this.findSolution(tiles);
+            if (solution == null) {
+                return null;
+            }
+            if (this.solveDeadline == 0) { // only optimal solutions give distances
+                cache.putSolution(this.size, tiles, current.stateHash(), solution.moves());
+            }
+            return solution.moves().get(0);
+        }
+        Position empty = current.emptyPosition();
+        int emptyAfter = this.size.cellOf(empty) + this.deltaOf(HintCache.directionOf(entry));
+        return new Move(this.size.positionOf(emptyAfter), empty);
+    }
+
+    /**
+     * Sets the heuristic used to find solutions, e.g. a PatternDatabase
+     *
+     * @param heuristic admissible heuristic for this board
+     */
+    public void setHeuristic(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Finds solutions by lookup in a table of all boards of this size, without search
+     *
+     * @param table table of this board size, or null to search
+     * @throws IllegalArgumentException if the table is for another size
+     */
+    public void setStateTable(StateTable table) {
+        if (table != null && !table.getSize().equals(this.size)) {
+            throw new IllegalArgumentException("State table of " + table.getSize() + " for a " + this.size + " board");
+        }
+        this.stateTable = table;
+    }
+
+    /**
+     * Finds solutions of boards near the goal by lookup, before any search
+     *
+     * @param table endgame table of this board size, or null to always search
+     * @throws IllegalArgumentException if the table is for another size
+     */
+    public void setEndgameTable(EndgameTable table) {
+        if (table != null && !table.getSize().equals(this.size)) {
+            throw new IllegalArgumentException("Endgame table of " + table.getSize() + " for a " + this.size + " board");
+        }
+        this.endgameTable = table;
+    }
+
+    /**
+     * Makes solve and hint use the anytime solver: the best solution found
+     * within the deadline, possibly not optimal, instead of an optimal one
+     *
+     * @param millis maximum search time in milliseconds, or 0 for optimal solutions
+     */
+    public void setSolveDeadline(long millis) {
+        assert (millis >= 0);
+        this.solveDeadline = millis;
+    }
+
+    /**
+     * Makes solve and hint use bidirectional breadth first search, within a
+     * memory cap; past the cap the heuristic search is used
+     *
+     * @param memoryCap maximum bytes of the search, or 0 for heuristic search
+     * @throws IllegalArgumentException if the board has more than 16 cells
+     */
+    public void setBidirectional(long memoryCap) {
+        assert (memoryCap >= 0);
+        if (memoryCap > 0 && this.size.cells() > PackedBoard.MAX_CELLS) {
+            throw new IllegalArgumentException("Bidirectional search for a " + this.size + " board");
+        }
+        this.bidirectionalCap = memoryCap;
+        if (memoryCap == 0) {
+            this.bidirectionalSolver = null; // its maps go with the next garbage collection
+        }
+    }
+
+    /**
+     * Sets the number of threads used to find solutions
+     * With more than one thread the solver has no node limit
+     *
+     * @param parallelism number of threads, 1 for the sequential solver
+     */
+    public void setParallelism(int parallelism) {
+        assert (parallelism >= 1);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Plays an optimal solution from the current board, one move at a time
+     * If the solver gives up, rewinds the stored moves applying the reverse of each move
+     *
+     * @param sleepTime time between each move
+     * @return completed when the search for the solution is over, so callers
+     * can keep one search per player in the shared solver pool
+     */
+    public CompletableFuture<Void> unmix(int sleepTime) {
+        CompletableFuture<Void> searched = new CompletableFuture<>();
+        this.loop.run(() -> {
+            this.stopPlayback();
+            Playback next = new Playback(sleepTime);
+            this.playback = next;
+            GameScheduler.solvers().execute(() -> next.start(searched));
+        });
+        return searched;
+    }
+
+    /**
+     * Stops the solve animation started by unmix, if any
+     */
+    public void cancelSolve() {
+        this.loop.run(this::stopPlayback);
+    }
+
+    /**
+     * Stops the solve animation, if any; called by each command that changes
+     * the board, as the rest of the solution would not fit the new board
+     */
+    private void stopPlayback() {
+        if (this.playback != null) {
+            this.playback.cancel();
+            this.playback = null;
+        }
+    }
+
+    /**
+     * Solve animation: each move is a short task in the shared scheduler,
+     * so no thread sleeps between moves; the task only adds a command to the loop
+     */
+    private class Playback implements Runnable {
+        private final int sleepTime;
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> next;
+        private Iterator<Move> solution;
+
+        Playback(int sleepTime) {
+            this.sleepTime = sleepTime;
+        }
+
+        /**
+         * Searches a solution (in the solver pool) and schedules the first move;
+         * a playback cancelled while waiting in the pool does not search
+         *
+         * @param searched completed when the search is over
+         */
+        void start(CompletableFuture<Void> searched) {
+            try {
+                if (this.cancelled) {
+                    return;
+                }
+                Solution found = findSolution();
+                this.solution = found == null ? null : found.moves().iterator();
+                loop.execute(this::schedule);
+            } finally {
+                searched.complete(null);
+            }
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            ScheduledFuture<?> future = this.next;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+        private void schedule() {
+            if (!this.cancelled) {
+                this.next = GameScheduler.after(this, this.sleepTime, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void run() {
+            loop.execute(this::step);
+        }
+
+        /**
+         * Applies one move: the next move of the solution, stored as a move
+         * played, or, if the solver gave up, the reverse of the last stored move
+         */
+        private void step() {
+            if (this.cancelled) {
+                return;
+            }
+            boolean rewinding = this.solution == null;
+            Move m = this.nextMove();
+            if (m == null || size.cellOf(m.end()) != board.emptyCell()) {
+                return; // done, or the board is not the one solved
+            }
+            int emptyBefore = board.emptyCell();
+            applyMove(m);
+            if (!rewinding) {
+                storeMove(directionOf(emptyBefore, board.emptyCell()));
+            }
+            lastMove = m;
+            Metrics.MOVES.increment();
+            boolean winning = board.isGoal();
+            if (winning) {
+                clearMoves();
+            }
+            publish();
+
+            notifyViews(m, winning, timerValue);
+
+            if (!winning) {
+                this.schedule();
+            }
+        }
+
+        private Move nextMove() {
+            if (this.solution != null) {
+                return this.solution.hasNext() ? this.solution.next() : null;
+            }
+            if (moves.isEmpty()) {
+                return null;
+            }
+            int empty = board.emptyCell();
+            int previousEmpty = empty - deltaOf(dropLastMove());
+            return new Move(size.positionOf(previousEmpty), size.positionOf(empty));
+        }
+    }
+
+    /**
+     * @return a new array with the piece at each cell (line * cols + col)
+     */
+    int[] tiles() {
+        return this.snapshot.tiles();
+    }
+
+    /**
+     * Hash of the pieces only, updated in O(1) by each move; equal boards have
+     * equal hashes whatever moves led to them
+     *
+     * @return Zobrist hash of the current board
+     */
+    public long stateHash() {
+        return this.snapshot.stateHash();
+    }
+
+    /**
+     * Equality of the pieces only, ignoring the stored moves and the timer
+     * (equals also compares the stored moves)
+     *
+     * @param other another model
+     * @return true if both boards have the same size and the same piece in each cell
+     */
+    public boolean sameState(Model other) {
+        return this.snapshot.sameState(other.snapshot);
+    }
+
+    /**
+     * @return the state after the last command, safe to read from any thread
+     */
+    public Snapshot snapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Publishes the current state to readers; called at the end of each command
+     */
+    private void publish() {
+        this.snapshot = new Snapshot(this.size, this.board.tiles(), this.board.emptyCell(),
+                this.board.stateHash(), this.board.isGoal(), this.lastMove, this.moves.size(), this.moves.longHash(),
+                this.timerValue);
+    }
+
+    /**
+     * @return number of lines and columns of this board
+     */
+    public BoardSize getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return number of lines of this board
+     */
+    public int getLines() {
+        return this.size.lines();
+    }
+
+    /**
+     * @return number of columns of this board
+     */
+    public int getCols() {
+        return this.size.cols();
+    }
+
+    /**
+     * Moves the piece at pos to the empty cell, if they are neighbors
+     *
+     * @param pos position of the selected piece
+     * @return true if the piece moved
+     */
+    public boolean pieceSelected(Position pos) {
+        return this.loop.call(() -> this.movePieceAt(pos));
+    }
+
+
+    /**
+     * Tries to move a piece at position If moved notifies views
+     *
+     * @param position position of piece to move
+     * @return true if moved, false otherwise
+     */
+    private boolean movePieceAt(Position position) {
+        if (position.isInside(this.size)) {
+            Position emptyPos = this.getEmptyInNeighborhood(position);
+            if (emptyPos != null) {
+                this.stopPlayback();
+                Move newMove = new Move(position, emptyPos);
+                int emptyBefore = this.board.emptyCell();
+                this.applyMove(newMove);
+                this.storeMove(this.directionOf(emptyBefore, this.board.emptyCell()));
+                this.lastMove = newMove;
+                Metrics.MOVES.increment();
+                boolean winning = this.board.isGoal();
+                this.publish();
+                this.notifyViews(newMove, winning, timerValue);
+                if (winning) {
+                    timerValue = 0;
+                    this.stopTimer();
+                    this.publish();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Notify observers using methods inherited from from class Observable
+     *
+     * @param move    the executed move
+     * @param winning true if this is a winning position
+     * @param tValue  current time count
+     */
+    private void notifyViews(Move move, Boolean winning, int tValue) {
+        long start = Metrics.NOTIFY_VIEW.start();
+        this.view.notifyView(move, winning, tValue);
+        Metrics.NOTIFY_VIEW.stop(start);
+    }
+
+    /**
+     * Gets last executed move
+     *
+     * @return the last move, or null if there is none
+     */
+    public Move getLastMove() {
+        return this.snapshot.getLastMove();
+    }
+
+    /**
+     * Stores the move just applied to the board, without short loops: if the
+     * board was reached by one of the last LOOP_WINDOW stored moves (a move and
+     * its reverse is the shortest loop), the moves since then are dropped, so
+     * replaying the stored moves backwards to unmix does not replay them.
+     * Only the boards of the window are kept (a key and an index entry each,
+     * about 32 bytes), so the memory of a game is bounded whatever its length;
+     * the moves themselves take 2 bits each. Boards of up to 16 cells are
+     * found by their exact packed form, so no move is dropped by a hash collision
+     *
+     * @param direction direction of the empty cell in the move
+     */
+    private void storeMove(int direction) {
+        long key = this.board.stateKey();
+        int earlier = this.visited.get(key);
+        if (earlier == StateIndex.ABSENT) {
+            this.moves.push(direction);
+            int n = this.moves.size();
+            int slot = n & (LOOP_WINDOW - 1);
+            if (n >= LOOP_WINDOW) {
+                this.forget(this.recent[slot], n - LOOP_WINDOW); // leaves the window
+            }
+            this.recent[slot] = key;
+            this.visited.put(key, n);
+        } else {
+            while (this.moves.size() > earlier) {
+                this.dropLastMove();
+            }
+        }
+    }
+
+    /**
+     * Removes the most recent stored move; the board is not changed
+     *
+     * @return direction of the removed move
+     */
+    private int dropLastMove() {
+        int n = this.moves.size();
+        this.forget(this.recent[n & (LOOP_WINDOW - 1)], n);
+        return this.moves.pop();
+    }
+
+    /**
+     * @param key board key
+     * @param n   number of stored moves that reached it; if the key is of a
+     *            later board (n left the window), the index is not changed
+     */
+    private void forget(long key, int n) {
+        if (this.visited.get(key) == n) {
+            this.visited.remove(key);
+        }
+    }
+
+    /**
+     * Removes all stored moves; the current board is the start of the next ones
+     */
+    private void clearMoves() {
+        this.moves.clear();
+        this.visited.clear();
+        this.recent[0] = this.board.stateKey();
+        this.visited.put(this.recent[0], 0);
+    }
+
+    /**
+     * @param from empty cell before a move
+     * @param to   empty cell after the move, a neighbor of from
+     * @return direction of the empty cell, as stored in MoveHistory
+     */
+    private int directionOf(int from, int to) {
+        int delta = to - from;
+        return delta == -this.size.cols() ? MoveHistory.UP
+                : delta == -1 ? MoveHistory.LEFT
+                : delta == 1 ? MoveHistory.RIGHT
+                : MoveHistory.DOWN;
+    }
+
+    /**
+     * @param direction direction of the empty cell, as stored in MoveHistory
+     * @return change of the empty cell number
+     */
+    private int deltaOf(int direction) {
+        return NEIGHBORS[direction][0] * this.size.cols() + NEIGHBORS[direction][1];
+    }
+
+    /**
+     * Checks if board as all pieces in winning positions
+     *
+     * @return true if winning positions, false otherwise
+     */
+    public boolean inWinningPositions() {
+        return this.snapshot.isWinning();
+    }
+
+    /**
+     * Applies move m to the board assert(move != null)
+     *
+     * @param move the move to apply
+     * @return true
+     */
+    private void applyMove(Move move) {
+        assert (move != null);
+        assert (this.size.cellOf(move.end()) == this.board.emptyCell());
+        this.board.moveEmptyTo(this.size.cellOf(move.begin()));
+    }
+
+    /**
+     * Randomly selects cell that can be moved to the empty cell
+     *
+     * @param empty the empty cell
+     * @return the selected neighbor cell
+     */
+    private int randomlySelectNeighborOf(int empty) {
+        int[] neighbors = this.neighborCells[empty];
+        return neighbors[RAND.nextInt(neighbors.length)];
+    }
+
+    /**
+     * Tries to return the empty position in the neighborhood of line col
+     *
+     * @param center position to find empty in its neighborhood
+     * @return the empty position or null if non-existent in the neighborhood
+     */
+    private Position getEmptyInNeighborhood(Position center) {
+        Position emptyPosition = this.size.positionOf(this.board.emptyCell());
+        int lineDif = Math.abs(center.line() - emptyPosition.line());
+        int colDif = Math.abs(center.col() - emptyPosition.col());
+        if (lineDif == 0 && colDif == 1 || lineDif == 1 && colDif == 0) {
+            return emptyPosition;
+        }
+        else {
+            return null;
+        }
+    }
+
+    /**
+     * Wait the specified time in milliseconds
+     *
+     * @param sleepTime
+     */
+    public static void sleep(int sleepTime) {
+        try {
+            Thread.sleep(sleepTime);
+        } catch (InterruptedException e) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * Compares the published snapshots (see Snapshot.equals), so no loop is entered
+     */
+    @Override
+    public int hashCode() {
+        return this.snapshot.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        Model other = (Model) obj;
+        return this.snapshot.equals(other.snapshot);
+    }
+
+    /**
+     * Stops the current timer and sets the timer count to zero
+     */
+    public void resetTimer() {
+        this.loop.run(() -> {
+            this.stopTimer();
+            this.timerValue = -1;
+            this.snapshot = this.snapshot.withTimerValue(this.timerValue);
+        });
+    }
+
+    /**
+     * Starts timer, ticking every second in the shared scheduler
+     */
+    public void startTimer() {
+        this.loop.run(() -> {
+            this.resetTimer();
+            this.timerStart = System.nanoTime();
+            this.ticking = GameScheduler.every(() -> this.loop.execute(this::tick), 1, TimeUnit.SECONDS);
+        });
+    }
+
+    private void tick() {
+        if (this.ticking != null) {
+            this.timerValue++;
+            if (Metrics.enabled()) {
+                // tick n is due n seconds after the start
+                long due = this.timerStart + TimeUnit.SECONDS.toNanos(this.timerValue);
+                Metrics.TIMER_DRIFT.record(Math.abs(System.nanoTime() - due));
+            }
+            this.snapshot = this.snapshot.withTimerValue(this.timerValue);
+            this.notifyViews(null, false, this.timerValue);
+        }
+    }
+
+    /**
+     * Stops the current timer
+     */
+    public void stopTimer() {
+        this.loop.run(() -> {
+            if (this.ticking != null) {
+                this.ticking.cancel(false);
+                this.ticking = null;
+            }
+        });
+    }
+
+    /**
+     * Get current timer value
+     *
+     * @return time in seconds
+     */
+    public int getTimerValue() {
+        return this.snapshot.getTimerValue();
+    }
+
+}
@@ -30,6 +30,16 @@ public record Move(Position begin, Position end) {
         return new Move(this.end, this.begin);
     }
 
+    /**
+     * Get the move reflected on the main diagonal of a square board
+     *
+     * @return reflected move
+     */
+    public Move getReflected()
+    {
+        return new Move(this.begin.getReflected(), this.end.getReflected());
+    }
+
     @Override
     public String toString()
     {
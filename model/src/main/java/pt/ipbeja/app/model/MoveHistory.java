@@ -0,0 +1,242 @@
+package pt.ipbeja.app.model;
+
+import java.util.NoSuchElementException;
+
+/**
+ * History of moves stored as 2 bit directions of the empty cell
+ * (UP, LEFT, RIGHT, DOWN, the order of Model.NEIGHBORS, so the reverse of d is
+ * 3 - d), 32 moves per long, in a growable ring buffer.
+ * If a maximum size is given the oldest moves are dropped when it is reached.
+ * A polynomial hash (sum of (d + 1) * P^i, i from the oldest move) is kept up
+ * to date in O(1), as P is odd and so has an inverse modulo 2^64
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class MoveHistory {
+    public static final int UP = 0;
+    public static final int LEFT = 1;
+    public static final int RIGHT = 2;
+    public static final int DOWN = 3;
+
+    private static final int PER_WORD = 32;
+    private static final long P = 0x9E3779B97F4A7C15L;
+    private static final long P_INVERSE = inverse(P);
+
+    private final int maxSize;
+    private long[] words;
+    private int head;  // index of the oldest move
+    private int size;
+    private long hash;
+    private long power; // P^size
+
+    /**
+     * Creates an empty history without maximum size
+     */
+    public MoveHistory() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates an empty history
+     *
+     * @param maxSize maximum number of moves kept
+     */
+    public MoveHistory(int maxSize) {
+        this.maxSize = maxSize;
+        this.words = new long[2];
+        this.power = 1;
+    }
+
+    /**
+     * Creates a copy of other
+     *
+     * @param other history to copy
+     */
+    public MoveHistory(MoveHistory other) {
+        this.maxSize = other.maxSize;
+        this.words = other.words.clone();
+        this.head = other.head;
+        this.size = other.size;
+        this.hash = other.hash;
+        this.power = other.power;
+    }
+
+    /**
+     * Adds a move as the most recent one
+     *
+     * @param direction direction of the empty cell, UP, LEFT, RIGHT or DOWN
+     */
+    public void push(int direction) {
+        assert (0 <= direction && direction < 4);
+        if (this.size == this.maxSize) {
+            this.dropOldest();
+        }
+        if (this.size == this.capacity()) {
+            this.grow();
+        }
+        this.set(this.size, direction);
+        this.size++;
+        this.hash += (direction + 1) * this.power;
+        this.power *= P;
+    }
+
+    /**
+     * Removes the most recent move
+     *
+     * @return direction of the removed move
+     * @throws NoSuchElementException if the history is empty
+     */
+    public int pop() {
+        int direction = this.peek();
+        this.size--;
+        this.power *= P_INVERSE;
+        this.hash -= (direction + 1) * this.power;
+        return direction;
+    }
+
+    /**
+     * @return direction of the most recent move
+     * @throws NoSuchElementException if the history is empty
+     */
+    public int peek() {
+        if (this.size == 0) {
+            throw new NoSuchElementException();
+        }
+        return this.get(this.size - 1);
+    }
+
+    /**
+     * Reverse iteration: fromLast(0) is the most recent move
+     *
+     * @param back number of moves back from the most recent one
+     * @return direction of that move
+     */
+    public int fromLast(int back) {
+        assert (0 <= back && back < this.size);
+        return this.get(this.size - 1 - back);
+    }
+
+    /**
+     * @param index from 0 (oldest) to size - 1 (most recent)
+     * @return direction of that move
+     */
+    public int get(int index) {
+        int i = (this.head + index) & (this.capacity() - 1);
+        return (int) (this.words[i / PER_WORD] >>> (2 * (i % PER_WORD))) & 3;
+    }
+
+    /**
+     * Removes all moves
+     */
+    public void clear() {
+        this.head = 0;
+        this.size = 0;
+        this.hash = 0;
+        this.power = 1;
+    }
+
+    /**
+     * @return number of moves
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return true if there are no moves
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * @param direction UP, LEFT, RIGHT or DOWN
+     * @return the opposite direction
+     */
+    public static int reverse(int direction) {
+        return 3 - direction;
+    }
+
+    private void set(int index, int direction) {
+        int i = (this.head + index) & (this.capacity() - 1);
+        int shift = 2 * (i % PER_WORD);
+        this.words[i / PER_WORD] = this.words[i / PER_WORD] & ~(3L << shift) | ((long) direction << shift);
+    }
+
+    private void dropOldest() {
+        int direction = this.get(0);
+        this.head = (this.head + 1) & (this.capacity() - 1);
+        this.size--;
+        this.hash = (this.hash - (direction + 1)) * P_INVERSE;
+        this.power *= P_INVERSE;
+    }
+
+    private int capacity() {
+        return this.words.length * PER_WORD;
+    }
+
+    /**
+     * Doubles the capacity, moving the moves to the start of the new buffer
+     */
+    private void grow() {
+        long[] old = this.words;
+        int oldHead = this.head;
+        int oldCapacity = this.capacity();
+        this.words = new long[old.length * 2];
+        this.head = 0;
+        for (int index = 0; index < this.size; index++) {
+            int i = (oldHead + index) & (oldCapacity - 1);
+            this.set(index, (int) (old[i / PER_WORD] >>> (2 * (i % PER_WORD))) & 3);
+        }
+    }
+
+    /**
+     * @param x odd number
+     * @return y such that x * y == 1 modulo 2^64 (Newton iteration)
+     */
+    private static long inverse(long x) {
+        long y = x;
+        for (int i = 0; i < 5; i++) {
+            y *= 2 - x * y;
+        }
+        return y;
+    }
+
+    /**
+     * @return polynomial hash of all the moves, kept up to date by each change
+     */
+    long longHash() {
+        return this.hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.hash) * 31 + this.size;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof MoveHistory))
+            return false;
+        MoveHistory other = (MoveHistory) obj;
+        if (this.size != other.size || this.hash != other.hash)
+            return false;
+        for (int index = 0; index < this.size; index++) {
+            if (this.get(index) != other.get(index))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        char[] letters = new char[this.size];
+        for (int index = 0; index < this.size; index++) {
+            letters[index] = "ULRD".charAt(this.get(index));
+        }
+        return "MoveHistory [" + new String(letters) + "]";
+    }
+}
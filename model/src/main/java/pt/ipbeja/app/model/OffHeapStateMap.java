@@ -0,0 +1,230 @@
+package pt.ipbeja.app.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Open addressing hash map from packed board (a non zero long) to one byte,
+ * stored outside the Java heap in direct buffers, so that millions of states
+ * cost 9 bytes each (plus free slots) and add no work to the garbage collector
+ * Slots are probed linearly; key 0 marks a free slot. The table doubles when
+ * half full, if the Budget allows it, up to MAX_CAPACITY slots (the keys of
+ * one map fill one buffer); a map that cannot grow, or whose buffers cannot be
+ * allocated, marks the budget as exceeded
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+final class OffHeapStateMap {
+    static final int ABSENT = -1;
+    static final int FULL = -2;
+
+    private static final int SLOT_BYTES = Long.BYTES + 1;
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final int MAX_CAPACITY = 1 << 27; // 1 GB of keys, indexed by int
+
+    /**
+     * Bytes that all maps of a search may use together
+     */
+    static final class Budget {
+        private final long cap;
+        private long used;
+        private boolean exceeded;
+
+        /**
+         * @param cap maximum number of bytes
+         */
+        Budget(long cap) {
+            this.cap = cap;
+        }
+
+        boolean reserve(long bytes) {
+            if (this.used + bytes > this.cap) {
+                this.exceeded = true;
+                return false;
+            }
+            this.used += bytes;
+            return true;
+        }
+
+        /**
+         * Records that a map could not grow for other reasons than the cap
+         */
+        void exceed() {
+            this.exceeded = true;
+        }
+
+        void release(long bytes) {
+            this.used -= bytes;
+        }
+
+        /**
+         * Starts another search with the same maps: the bytes stay in use and
+         * the cap is not exceeded yet
+         */
+        void restart() {
+            this.exceeded = false;
+        }
+
+        /**
+         * @return bytes in use
+         */
+        long used() {
+            return this.used;
+        }
+
+        /**
+         * @return true if some map could not grow, by the cap, its maximum
+         * capacity or the direct memory
+         */
+        boolean exceeded() {
+            return this.exceeded;
+        }
+    }
+
+    private final Budget budget;
+    private ByteBuffer keys;
+    private ByteBuffer values;
+    private int capacity;
+    private int size;
+
+    /**
+     * @param budget bytes shared with other maps
+     * @throws IllegalStateException if the budget or the direct memory is too
+     *                               small for an empty map
+     */
+    OffHeapStateMap(Budget budget) {
+        this.budget = budget;
+        if (!budget.reserve((long) MIN_CAPACITY * SLOT_BYTES) || !this.allocate(MIN_CAPACITY)) {
+            throw new IllegalStateException("Memory cap too small");
+        }
+    }
+
+    /**
+     * Replaces the buffers by empty ones; the budget was reserved for them
+     *
+     * @return false, keeping the old buffers and releasing the reserve, if
+     * the direct memory is exhausted
+     */
+    private boolean allocate(int capacity) {
+        ByteBuffer newKeys;
+        ByteBuffer newValues;
+        try {
+            newKeys = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder());
+            newValues = ByteBuffer.allocateDirect(capacity);
+        } catch (OutOfMemoryError e) { // beyond -XX:MaxDirectMemorySize
+            this.budget.release((long) capacity * SLOT_BYTES);
+            this.budget.exceed();
+            return false;
+        }
+        this.capacity = capacity;
+        this.keys = newKeys;
+        this.values = newValues;
+        this.size = 0;
+        return true;
+    }
+
+    private int slotOf(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & (this.capacity - 1);
+    }
+
+    /**
+     * @param key a packed board, not zero
+     * @return the value of key, or ABSENT
+     */
+    int get(long key) {
+        int mask = this.capacity - 1;
+        for (int slot = this.slotOf(key); ; slot = (slot + 1) & mask) {
+            long k = this.keys.getLong(slot * Long.BYTES);
+            if (k == key) {
+                return this.values.get(slot) & 0xFF;
+            }
+            if (k == 0) {
+                return ABSENT;
+            }
+        }
+    }
+
+    /**
+     * Adds key if it is not in the map
+     *
+     * @param key   a packed board, not zero
+     * @param value from 0 to 255
+     * @return ABSENT if key was added, its value if it was already there, or
+     * FULL if the map could not grow within the budget
+     */
+    int putIfAbsent(long key, int value) {
+        if (2 * (this.size + 1) > this.capacity && !this.grow()) {
+            return FULL;
+        }
+        int mask = this.capacity - 1;
+        int slot = this.slotOf(key);
+        for (long k; (k = this.keys.getLong(slot * Long.BYTES)) != 0; slot = (slot + 1) & mask) {
+            if (k == key) {
+                return this.values.get(slot) & 0xFF;
+            }
+        }
+        this.keys.putLong(slot * Long.BYTES, key);
+        this.values.put(slot, (byte) value);
+        this.size++;
+        return ABSENT;
+    }
+
+    private boolean grow() {
+        if (this.capacity >= MAX_CAPACITY) {
+            this.budget.exceed();
+            return false;
+        }
+        if (!this.budget.reserve(2L * this.capacity * SLOT_BYTES)) {
+            return false;
+        }
+        ByteBuffer oldKeys = this.keys;
+        ByteBuffer oldValues = this.values;
+        int oldCapacity = this.capacity;
+        if (!this.allocate(2 * oldCapacity)) {
+            return false;
+        }
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long key = oldKeys.getLong(slot * Long.BYTES);
+            if (key != 0) {
+                this.putIfAbsent(key, oldValues.get(slot) & 0xFF);
+            }
+        }
+        this.budget.release((long) oldCapacity * SLOT_BYTES);
+        return true;
+    }
+
+    /**
+     * Removes all keys, keeping the memory, so the map is reused instead of
+     * leaving its buffers to the garbage collector
+     */
+    void clear() {
+        for (int slot = 0; slot < this.capacity; slot++) {
+            this.keys.putLong(slot * Long.BYTES, 0);
+        }
+        this.size = 0;
+    }
+
+    /**
+     * @return number of keys
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @return number of slots; keys are read with keyAt
+     */
+    int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @param slot from 0 to capacity - 1
+     * @return the key at slot, or 0 if the slot is free
+     */
+    long keyAt(int slot) {
+        return this.keys.getLong(slot * Long.BYTES);
+    }
+}
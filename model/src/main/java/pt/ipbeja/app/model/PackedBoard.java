@@ -0,0 +1,126 @@
+package pt.ipbeja.app.model;
+
+/**
+ * Board with up to 16 cells in one long, one piece per 4 bit nibble:
+ * the piece at cell is stored at bits 4 * cell to 4 * cell + 3
+ * As the empty nibble is zero, a move updates both cells with one xor
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+final class PackedBoard extends Board {
+    static final int MAX_CELLS = 16;
+    static final long CELL_MASK = 0xFL;
+
+    private final long goal;
+    private long packed;
+
+    PackedBoard(int nCells) {
+        super(nCells);
+        assert (nCells <= MAX_CELLS);
+        this.goal = PackedBoard.goal(nCells);
+    }
+
+    /**
+     * Packs the winning position (numbers in sequence, empty in the last cell)
+     *
+     * @param nCells number of cells
+     * @return the winning board
+     */
+    static long goal(int nCells) {
+        long goal = 0;
+        for (int cell = 0; cell < nCells - 1; cell++) {
+            goal |= (long) (cell + 1) << (cell << 2);
+        }
+        return goal;
+    }
+
+    /**
+     * @param tiles piece at each cell, up to 16 cells
+     * @return the packed board
+     */
+    static long pack(int[] tiles) {
+        long packed = 0;
+        for (int cell = 0; cell < tiles.length; cell++) {
+            packed |= (long) tiles[cell] << (cell << 2);
+        }
+        return packed;
+    }
+
+    /**
+     * @param packed packed board
+     * @param cell   cell number
+     * @return the piece at cell
+     */
+    static int pieceAt(long packed, int cell) {
+        return (int) ((packed >>> (cell << 2)) & CELL_MASK);
+    }
+
+    /**
+     * Finds the lowest zero nibble: cells beyond the board are zero, but
+     * they come after the empty cell
+     *
+     * @param packed packed board
+     * @return the empty cell
+     */
+    static int emptyCellOf(long packed) {
+        long zeros = (packed - 0x1111111111111111L) & ~packed & 0x8888888888888888L;
+        return Long.numberOfTrailingZeros(zeros) >>> 2;
+    }
+
+    /**
+     * @return the pieces packed in one long
+     */
+    long packed() {
+        return this.packed;
+    }
+
+    /**
+     * The packed board is exact, unlike the hash
+     */
+    @Override
+    long stateKey() {
+        return this.packed;
+    }
+
+    @Override
+    int pieceAt(int cell) {
+        return PackedBoard.pieceAt(this.packed, cell);
+    }
+
+    @Override
+    void moveEmptyTo(int cell) {
+        long piece = (this.packed >>> (cell << 2)) & CELL_MASK;
+        this.packed ^= (piece << (cell << 2)) | (piece << (this.emptyCell << 2));
+        this.stateHash = Zobrist.move(this.stateHash, (int) piece, cell, this.emptyCell);
+        this.emptyCell = cell;
+    }
+
+    @Override
+    boolean isGoal() {
+        return this.packed == this.goal;
+    }
+
+    @Override
+    void reset() {
+        this.packed = this.goal;
+        this.emptyCell = this.nCells - 1;
+        this.stateHash = Zobrist.goal(this.nCells);
+    }
+
+    @Override
+    void setTiles(int[] tiles) {
+        this.packed = PackedBoard.pack(tiles);
+        this.stateHash = Zobrist.hash(tiles);
+        for (int cell = 0; cell < tiles.length; cell++) {
+            if (tiles[cell] == Model.EMPTY) {
+                this.emptyCell = cell;
+            }
+        }
+    }
+
+    @Override
+    boolean sameState(Board other) {
+        return other instanceof PackedBoard && this.packed == ((PackedBoard) other).packed;
+    }
+}
@@ -0,0 +1,243 @@
+package pt.ipbeja.app.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optimal solver using IDA* on several cores
+ * In each iteration the top of the tree is explored up to a small depth and the
+ * boards at that depth become tasks of a fork/join pool (idle threads steal
+ * tasks). The next bound and the first solution are shared with atomics.
+ * As in sequential IDA*, no solution is shorter than the current bound, so the
+ * first solution found in an iteration is optimal
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class ParallelSolver implements AutoCloseable {
+    private static final int TASKS_PER_THREAD = 16;
+    private static final int MIN_SPLIT_DEPTH = 2;
+
+    private final int nLines;
+    private final int nCols;
+    private final Heuristic heuristic;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final ThreadLocal<Solver> workers;
+
+    /**
+     * @param heuristic   the heuristic for the default board
+     * @param parallelism number of threads
+     */
+    public ParallelSolver(Heuristic heuristic, int parallelism) {
+        this(Model.N_LINES, Model.N_COLS, heuristic, parallelism);
+    }
+
+    /**
+     * @param nLines      number of lines of the board
+     * @param nCols       number of columns of the board
+     * @param heuristic   admissible heuristic for that board
+     * @param parallelism number of threads
+     */
+    public ParallelSolver(int nLines, int nCols, Heuristic heuristic, int parallelism) {
+        this(nLines, nCols, heuristic, new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Solver that uses a pool shared with others; close does not stop it
+     * Solves may run at the same time from several threads
+     *
+     * @param nLines    number of lines of the board
+     * @param nCols     number of columns of the board
+     * @param heuristic admissible heuristic for that board
+     * @param pool      the threads, e.g. GameScheduler.parallelSolvers
+     */
+    public ParallelSolver(int nLines, int nCols, Heuristic heuristic, ForkJoinPool pool) {
+        this(nLines, nCols, heuristic, pool, false);
+    }
+
+    private ParallelSolver(int nLines, int nCols, Heuristic heuristic, ForkJoinPool pool, boolean ownsPool) {
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.heuristic = heuristic;
+        this.parallelism = pool.getParallelism();
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.workers = ThreadLocal.withInitial(() -> new Solver(nLines, nCols, heuristic, Solver.UNLIMITED));
+    }
+
+    /**
+     * Finds an optimal solution
+     *
+     * @param board piece at each cell (line * nCols + col)
+     * @return the solution
+     */
+    public Solution solve(int[] board) {
+        long start = System.nanoTime();
+        Solver top = new Solver(this.nLines, this.nCols, this.heuristic, Solver.UNLIMITED);
+        top.load(board);
+        LongAdder nodes = new LongAdder();
+        int h = top.carried();
+        int bound = this.heuristic.estimateOf(h);
+        List<int[]> frontier = new ArrayList<>();
+        while (true) {
+            int t;
+            int depth = MIN_SPLIT_DEPTH;
+            do {
+                frontier.clear();
+                top.load(board);
+                t = top.expandTo(depth++, h, bound, frontier);
+                nodes.add(top.nodes());
+                Metrics.HEURISTIC_EVALUATIONS.add(top.evaluations());
+            } while (t != Solver.FOUND && !frontier.isEmpty() &&
+                    frontier.size() < this.parallelism * TASKS_PER_THREAD && depth <= bound);
+            if (t == Solver.FOUND) {
+                return this.solutionOf(top, top.solutionPath(), nodes, start);
+            }
+
+            AtomicBoolean found = new AtomicBoolean();
+            AtomicReference<int[]> solution = new AtomicReference<>();
+            AtomicInteger nextBound = new AtomicInteger(t);
+            this.pool.invoke(new SearchTask(frontier, 0, frontier.size(), board, bound,
+                    found, solution, nextBound, nodes));
+            if (solution.get() != null) {
+                return this.solutionOf(top, solution.get(), nodes, start);
+            }
+            if (nextBound.get() == Solver.NOT_FOUND) {
+                return null;
+            }
+            bound = nextBound.get();
+        }
+    }
+
+    private Solution solutionOf(Solver solver, int[] path, LongAdder nodes, long start) {
+        return new Solution(solver.movesOf(path, path.length - 1), nodes.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * Solves the board with the sequential solver and with this one
+     *
+     * @param board piece at each cell (line * nCols + col)
+     * @return both solutions and the speedup
+     */
+    public Speedup compareWithSequential(int[] board) {
+        Solution sequential = new Solver(this.nLines, this.nCols, this.heuristic, Solver.UNLIMITED).solve(board);
+        Solution parallel = this.solve(board);
+        return new Speedup(sequential, parallel, this.parallelism);
+    }
+
+    /**
+     * @return number of threads
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * @return the heuristic of this solver
+     */
+    public Heuristic getHeuristic() {
+        return this.heuristic;
+    }
+
+    /**
+     * Stops the threads of this solver, unless the pool is shared
+     */
+    @Override
+    public void close() {
+        if (this.ownsPool) {
+            this.pool.shutdown();
+        }
+    }
+
+    /**
+     * Times of the sequential and parallel solvers for the same board
+     *
+     * @param sequential  solution of the sequential solver
+     * @param parallel    solution of the parallel solver
+     * @param parallelism number of threads of the parallel solver
+     */
+    public record Speedup(Solution sequential, Solution parallel, int parallelism) {
+
+        /**
+         * @return sequential time divided by parallel time
+         */
+        public double speedup() {
+            return (double) this.sequential.nanos() / Math.max(1, this.parallel.nanos());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sequential %d ms, parallel %d ms with %d threads, speedup %.2f",
+                    this.sequential.nanos() / 1_000_000, this.parallel.nanos() / 1_000_000,
+                    this.parallelism, this.speedup());
+        }
+    }
+
+    /**
+     * Searches the boards of a range of the frontier, splitting the range in halves
+     */
+    private class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<int[]> frontier;
+        private final int lo;
+        private final int hi;
+        private final int[] board;
+        private final int bound;
+        private final AtomicBoolean found;
+        private final AtomicReference<int[]> solution;
+        private final AtomicInteger nextBound;
+        private final LongAdder nodes;
+
+        SearchTask(List<int[]> frontier, int lo, int hi, int[] board, int bound, AtomicBoolean found,
+                   AtomicReference<int[]> solution, AtomicInteger nextBound, LongAdder nodes) {
+            this.frontier = frontier;
+            this.lo = lo;
+            this.hi = hi;
+            this.board = board;
+            this.bound = bound;
+            this.found = found;
+            this.solution = solution;
+            this.nextBound = nextBound;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.hi - this.lo > 1) {
+                int mid = (this.lo + this.hi) >>> 1;
+                invokeAll(new SearchTask(this.frontier, this.lo, mid, this.board, this.bound,
+                                this.found, this.solution, this.nextBound, this.nodes),
+                        new SearchTask(this.frontier, mid, this.hi, this.board, this.bound,
+                                this.found, this.solution, this.nextBound, this.nodes));
+                return;
+            }
+            if (this.lo == this.hi || this.found.get()) {
+                return;
+            }
+            int[] path = this.frontier.get(this.lo);
+            Solver worker = ParallelSolver.this.workers.get();
+            worker.setStop(this.found);
+            worker.load(this.board);
+            worker.follow(path, path.length - 1);
+            int t = worker.search(path.length - 1, worker.carried(), this.bound);
+            this.nodes.add(worker.nodes());
+            Metrics.HEURISTIC_EVALUATIONS.add(worker.evaluations());
+            if (t == Solver.FOUND) {
+                if (this.found.compareAndSet(false, true)) {
+                    this.solution.set(worker.solutionPath());
+                }
+            } else {
+                this.nextBound.accumulateAndGet(t, Math::min);
+            }
+        }
+    }
+}
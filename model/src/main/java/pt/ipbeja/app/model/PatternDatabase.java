@@ -0,0 +1,512 @@
+package pt.ipbeja.app.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Additive disjoint pattern database heuristic
+ * The pieces are split in disjoint patterns. For each pattern, a table stores
+ * the minimum number of moves of pattern pieces needed to put them in their
+ * winning cells (moves of other pieces are free), so the values of the
+ * patterns can be added. Each table is indexed by the rank of the cells of the
+ * pattern pieces, one byte per entry.
+ * Tables are built by breadth first search backwards from the winning
+ * position, using all cores, and are saved in a file that is memory mapped
+ * On square boards the tables are also looked up with the reflection of the
+ * board on the main diagonal, which is as far from the goal, and the larger
+ * of both sums is the estimate. A search carries both sums (see start), so a
+ * move updates one table value of each
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class PatternDatabase implements Heuristic {
+    /**
+     * 6-6-3 partition of the 4x4 board
+     */
+    public static final int[][] PATTERNS_663 = {{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+
+    /**
+     * 5-5-5 partition of the 4x4 board (smaller and faster to build)
+     */
+    public static final int[][] PATTERNS_555 = {{1, 2, 3, 5, 6}, {4, 7, 8, 11, 12}, {9, 10, 13, 14, 15}};
+
+    private static final int MAGIC = 0x50444231; // "PDB1"
+    private static final byte UNKNOWN = -1;
+    private static final int WORDS_PER_TASK = 1 << 10;
+
+    private final int nLines;
+    private final int nCols;
+    private final int nCells;
+    private final int[][] patterns;
+    private final int[] patternOf;      // [piece] index of the pattern of piece
+    private final ByteBuffer[] tables;  // [pattern] distance for each rank
+    private final Symmetry symmetry;    // null if the board is not square
+
+    private PatternDatabase(int nLines, int nCols, int[][] patterns, ByteBuffer[] tables) {
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.nCells = nLines * nCols;
+        this.patterns = patterns;
+        this.tables = tables;
+        this.symmetry = Symmetry.of(new BoardSize(nLines, nCols));
+        this.patternOf = new int[this.nCells];
+        Arrays.fill(this.patternOf, -1);
+        for (int p = 0; p < patterns.length; p++) {
+            for (int piece : patterns[p]) {
+                this.patternOf[piece] = p;
+            }
+        }
+    }
+
+    /**
+     * Loads the database from file, or builds and saves it if the file does not exist
+     *
+     * @param file     the database file
+     * @param nLines   number of lines of the board
+     * @param nCols    number of columns of the board
+     * @param patterns disjoint groups of pieces
+     * @return the database
+     * @throws IOException if the file cannot be read or written
+     */
+    public static PatternDatabase loadOrBuild(Path file, int nLines, int nCols, int[][] patterns)
+            throws IOException {
+        if (!Files.exists(file)) {
+            PatternDatabase.build(nLines, nCols, patterns).save(file);
+        }
+        PatternDatabase pdb = PatternDatabase.load(file);
+        if (pdb.nLines != nLines || pdb.nCols != nCols || !Arrays.deepEquals(pdb.patterns, patterns)) {
+            throw new IOException("Pattern database " + file + " was built for other board or patterns");
+        }
+        return pdb;
+    }
+
+    /**
+     * Maps a database file in memory
+     *
+     * @param file the database file
+     * @return the database
+     * @throws IOException if the file cannot be read or is not a database
+     */
+    public static PatternDatabase load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a pattern database: " + file);
+            }
+            int nLines = buffer.getInt();
+            int nCols = buffer.getInt();
+            int[][] patterns = new int[buffer.getInt()][];
+            for (int p = 0; p < patterns.length; p++) {
+                patterns[p] = new int[buffer.getInt()];
+                for (int i = 0; i < patterns[p].length; i++) {
+                    patterns[p][i] = buffer.getInt();
+                }
+            }
+            ByteBuffer[] tables = new ByteBuffer[patterns.length];
+            for (int p = 0; p < patterns.length; p++) {
+                int size = (int) tableSize(nLines * nCols, patterns[p].length);
+                tables[p] = buffer.slice().limit(size);
+                buffer.position(buffer.position() + size);
+            }
+            return new PatternDatabase(nLines, nCols, patterns, tables);
+        }
+    }
+
+    /**
+     * Saves the database; the file is written aside and then moved into place
+     *
+     * @param file the database file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int headerInts = 4 + this.patterns.length + Arrays.stream(this.patterns).mapToInt(p -> p.length).sum();
+            ByteBuffer header = ByteBuffer.allocate(4 * headerInts);
+            header.putInt(MAGIC).putInt(this.nLines).putInt(this.nCols).putInt(this.patterns.length);
+            for (int[] pattern : this.patterns) {
+                header.putInt(pattern.length);
+                for (int piece : pattern) {
+                    header.putInt(piece);
+                }
+            }
+            header.flip();
+            writeFully(channel, header);
+            for (ByteBuffer table : this.tables) {
+                writeFully(channel, table.duplicate().clear());
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Builds the database in memory
+     *
+     * @param nLines   number of lines of the board
+     * @param nCols    number of columns of the board
+     * @param patterns disjoint groups of pieces
+     * @return the database
+     */
+    public static PatternDatabase build(int nLines, int nCols, int[][] patterns) {
+        boolean[] used = new boolean[nLines * nCols];
+        for (int[] pattern : patterns) {
+            for (int piece : pattern) {
+                if (piece <= Model.EMPTY || piece >= used.length || used[piece]) {
+                    throw new IllegalArgumentException("Patterns are not disjoint groups of pieces");
+                }
+                used[piece] = true;
+            }
+        }
+        ByteBuffer[] tables = new ByteBuffer[patterns.length];
+        for (int p = 0; p < patterns.length; p++) {
+            tables[p] = ByteBuffer.wrap(new Builder(nLines, nCols, patterns[p]).build());
+        }
+        int[][] copy = Arrays.stream(patterns).map(int[]::clone).toArray(int[][]::new);
+        return new PatternDatabase(nLines, nCols, copy, tables);
+    }
+
+    @Override
+    public int estimate(int[] tiles, int[] cells) {
+        return this.estimateOf(this.start(tiles, cells));
+    }
+
+    /**
+     * @return the sum for the board in the low 16 bits and the sum for its
+     * reflection (0 if the board is not square) in the high 16 bits
+     */
+    @Override
+    public int start(int[] tiles, int[] cells) {
+        int direct = 0;
+        int reflected = 0;
+        for (int p = 0; p < this.patterns.length; p++) {
+            direct += this.valueOf(p, cells);
+            if (this.symmetry != null) {
+                reflected += this.reflectedValueOf(p, cells);
+            }
+        }
+        return direct | reflected << 16;
+    }
+
+    @Override
+    public int estimateOf(int h) {
+        return Math.max(h & 0xFFFF, h >>> 16);
+    }
+
+    /**
+     * Only the table of the moved piece changes in each sum: in the reflected
+     * one, the table of the piece it is relabelled to
+     */
+    @Override
+    public int update(int h, int piece, int from, int to, int[] tiles, int[] cells) {
+        int direct = h & 0xFFFF;
+        int reflected = h >>> 16;
+        int p = this.patternOf[piece];
+        int q = this.symmetry == null ? -1 : this.patternOf[this.symmetry.piece(piece)];
+        if (p >= 0) {
+            direct += this.valueOf(p, cells);
+        }
+        if (q >= 0) {
+            reflected += this.reflectedValueOf(q, cells);
+        }
+        cells[piece] = from;
+        if (p >= 0) {
+            direct -= this.valueOf(p, cells);
+        }
+        if (q >= 0) {
+            reflected -= this.reflectedValueOf(q, cells);
+        }
+        cells[piece] = to;
+        return direct | reflected << 16;
+    }
+
+    private int valueOf(int pattern, int[] cells) {
+        return this.tables[pattern].get((int) rank(this.patterns[pattern], cells, this.nCells));
+    }
+
+    /**
+     * Value of a pattern for the reflected board, where piece q is at the
+     * reflection of the cell of the piece relabelled as q
+     */
+    private int reflectedValueOf(int pattern, int[] cells) {
+        int[] pieces = this.patterns[pattern];
+        long used = 0;
+        long rank = 0;
+        for (int i = 0; i < pieces.length; i++) {
+            int cell = this.symmetry.cell(cells[this.symmetry.piece(pieces[i])]);
+            rank = rank * (this.nCells - i) + cell - Long.bitCount(used & ((1L << cell) - 1));
+            used |= 1L << cell;
+        }
+        return this.tables[pattern].get((int) rank);
+    }
+
+    /**
+     * Ranks the cells of the pattern pieces: each cell is coded by the number of
+     * free cells before it, in mixed radix nCells, nCells - 1, ...
+     *
+     * @param pattern the pattern pieces
+     * @param cells   cell of each piece
+     * @param nCells  number of cells of the board
+     * @return the rank, from 0 to tableSize - 1
+     */
+    static long rank(int[] pattern, int[] cells, int nCells) {
+        long used = 0;
+        long rank = 0;
+        for (int i = 0; i < pattern.length; i++) {
+            int cell = cells[pattern[i]];
+            rank = rank * (nCells - i) + cell - Long.bitCount(used & ((1L << cell) - 1));
+            used |= 1L << cell;
+        }
+        return rank;
+    }
+
+    /**
+     * Inverse of rank
+     *
+     * @param rank         a rank of k pattern pieces
+     * @param patternCells receives the cell of each of the k pattern pieces
+     * @param nCells       number of cells of the board
+     */
+    static void unrank(long rank, int[] patternCells, int nCells) {
+        for (int i = patternCells.length - 1; i >= 0; i--) {
+            int radix = nCells - i;
+            patternCells[i] = (int) (rank % radix); // free cells before it
+            rank /= radix;
+        }
+        long used = 0;
+        for (int i = 0; i < patternCells.length; i++) {
+            long free = ~used;
+            for (int skip = patternCells[i]; skip > 0; skip--) {
+                free &= free - 1;
+            }
+            patternCells[i] = Long.numberOfTrailingZeros(free);
+            used |= 1L << patternCells[i];
+        }
+    }
+
+    /**
+     * @param nCells number of cells of the board
+     * @param k      number of pieces of the pattern
+     * @return number of arrangements of k pieces in nCells cells
+     */
+    static long tableSize(int nCells, int k) {
+        long size = 1;
+        for (int i = 0; i < k; i++) {
+            size *= nCells - i;
+        }
+        return size;
+    }
+
+    /**
+     * @return the patterns of this database
+     */
+    public int[][] getPatterns() {
+        return Arrays.stream(this.patterns).map(int[]::clone).toArray(int[][]::new);
+    }
+
+    /**
+     * Breadth first search for one pattern. A state is the rank of the pattern
+     * cells and the empty cell; moving other pieces costs nothing, so every empty
+     * cell reachable without moving pattern pieces is visited at the same cost.
+     * Each layer is expanded in parallel, states are marked in atomic bitsets
+     */
+    private static class Builder {
+        private final int nCells;
+        private final int[] pattern;
+        private final long size;
+        private final long[] adjacent; // [cell] mask of neighbor cells
+        private final byte[] table;
+        private final AtomicLongArray visited;
+        private AtomicLongArray frontier;
+        private AtomicLongArray next;
+
+        Builder(int nLines, int nCols, int[] pattern) {
+            this.nCells = nLines * nCols;
+            if (this.nCells > 64) {
+                throw new IllegalArgumentException("Pattern databases need at most 64 cells");
+            }
+            this.pattern = pattern.clone();
+            this.size = tableSize(this.nCells, pattern.length);
+            if (this.size > Integer.MAX_VALUE || this.size * this.nCells / 64 >= Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Pattern too large: " + Arrays.toString(pattern));
+            }
+            int[][] neighbors = Model.createNeighborCells(nLines, nCols);
+            this.adjacent = new long[this.nCells];
+            for (int cell = 0; cell < this.nCells; cell++) {
+                for (int n : neighbors[cell]) {
+                    this.adjacent[cell] |= 1L << n;
+                }
+            }
+            this.table = new byte[(int) this.size];
+            int words = (int) ((this.size * this.nCells + 63) / 64);
+            this.visited = new AtomicLongArray(words);
+            this.frontier = new AtomicLongArray(words);
+            this.next = new AtomicLongArray(words);
+        }
+
+        byte[] build() {
+            Arrays.fill(this.table, UNKNOWN);
+            int[] goal = new int[this.nCells];
+            for (int piece = 1; piece < this.nCells; piece++) {
+                goal[piece] = piece - 1;
+            }
+            long goalRank = rank(this.pattern, goal, this.nCells);
+            this.table[(int) goalRank] = 0;
+            this.visitComponent(goalRank, this.nCells - 1, this.occupied(goal), this.frontier);
+
+            int words = this.frontier.length();
+            int tasks = (words + WORDS_PER_TASK - 1) / WORDS_PER_TASK;
+            for (int depth = 0; this.hasStates(this.frontier); depth++) {
+                final byte nextDepth = (byte) (depth + 1);
+                IntStream.range(0, tasks).parallel().forEach(task -> {
+                    int[] cells = new int[this.pattern.length];
+                    int end = Math.min(words, (task + 1) * WORDS_PER_TASK);
+                    for (int w = task * WORDS_PER_TASK; w < end; w++) {
+                        long bits = this.frontier.get(w);
+                        while (bits != 0) {
+                            long state = 64L * w + Long.numberOfTrailingZeros(bits);
+                            bits &= bits - 1;
+                            this.expand(state / this.nCells, (int) (state % this.nCells), cells, nextDepth);
+                        }
+                    }
+                });
+                AtomicLongArray done = this.frontier;
+                this.frontier = this.next;
+                this.next = done;
+                for (int w = 0; w < words; w++) {
+                    this.next.set(w, 0);
+                }
+            }
+            return this.table;
+        }
+
+        /**
+         * Expands the component of empty cells of a state, once per component
+         */
+        private void expand(long rank, int empty, int[] cells, byte depth) {
+            this.unrank(rank, cells);
+            long occupied = 0;
+            for (int cell : cells) {
+                occupied |= 1L << cell;
+            }
+            long component = this.component(empty, occupied);
+            if (Long.numberOfTrailingZeros(component) != empty) {
+                return; // expanded from its lowest empty cell
+            }
+            for (int i = 0; i < cells.length; i++) {
+                int from = cells[i];
+                long targets = this.adjacent[from] & component;
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    cells[i] = to;
+                    long newRank = this.rankOf(cells);
+                    cells[i] = from;
+                    if (this.visitComponent(newRank, from, occupied ^ (1L << from) ^ (1L << to), this.next)
+                            && this.table[(int) newRank] == UNKNOWN) {
+                        this.table[(int) newRank] = depth;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Marks all states with the given rank and an empty cell connected to empty
+         *
+         * @return true if some state was not visited before
+         */
+        private boolean visitComponent(long rank, int empty, long occupied, AtomicLongArray layer) {
+            long component = this.component(empty, occupied);
+            boolean any = false;
+            while (component != 0) {
+                int cell = Long.numberOfTrailingZeros(component);
+                component &= component - 1;
+                long state = rank * this.nCells + cell;
+                if (setBit(this.visited, state)) {
+                    setBit(layer, state);
+                    any = true;
+                }
+            }
+            return any;
+        }
+
+        private long component(int empty, long occupied) {
+            long component = 1L << empty;
+            long grown = component;
+            do {
+                component = grown;
+                long bits = component;
+                while (bits != 0) {
+                    grown |= this.adjacent[Long.numberOfTrailingZeros(bits)];
+                    bits &= bits - 1;
+                }
+                grown &= ~occupied;
+            } while (grown != component);
+            return component;
+        }
+
+        private long occupied(int[] pieceCells) {
+            long occupied = 0;
+            for (int piece : this.pattern) {
+                occupied |= 1L << pieceCells[piece];
+            }
+            return occupied;
+        }
+
+        private long rankOf(int[] patternCells) {
+            long used = 0;
+            long rank = 0;
+            for (int i = 0; i < patternCells.length; i++) {
+                int cell = patternCells[i];
+                rank = rank * (this.nCells - i) + cell - Long.bitCount(used & ((1L << cell) - 1));
+                used |= 1L << cell;
+            }
+            return rank;
+        }
+
+        private void unrank(long rank, int[] patternCells) {
+            PatternDatabase.unrank(rank, patternCells, this.nCells);
+        }
+
+        private boolean hasStates(AtomicLongArray bits) {
+            for (int w = 0; w < bits.length(); w++) {
+                if (bits.get(w) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean setBit(AtomicLongArray bits, long index) {
+            int w = (int) (index >>> 6);
+            long mask = 1L << index;
+            long old = bits.get(w);
+            while ((old & mask) == 0) {
+                long witness = bits.compareAndExchange(w, old, old | mask);
+                if (witness == old) {
+                    return true;
+                }
+                old = witness;
+            }
+            return false;
+        }
+    }
+}
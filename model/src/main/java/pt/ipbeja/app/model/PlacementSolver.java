@@ -0,0 +1,155 @@
+package pt.ipbeja.app.model;
+
+import java.util.Arrays;
+
+/**
+ * Solves any solvable board, far from optimally but always and fast, by
+ * placing the pieces in order: each line but the last two from left to right
+ * (its last two pieces together), then the last two lines column by column,
+ * and the last 2x2 block at once. Each placement is a breadth first search
+ * over the cells of the pieces being placed and of the empty cell, which
+ * never moves into a cell already placed
+ * A solver is not thread safe, use one solver per thread
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+final class PlacementSolver {
+    private final int nLines;
+    private final int nCols;
+    private final int nCells;
+    private final int[][] neighborCells;
+
+    private final int[] tiles;
+    private final int[] cells;
+    private final boolean[] placed;
+    private int[] path; // path[g] is the empty cell after g moves
+    private int length;
+
+    /**
+     * @param nLines number of lines of the board
+     * @param nCols  number of columns of the board
+     */
+    PlacementSolver(int nLines, int nCols) {
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.nCells = nLines * nCols;
+        this.neighborCells = Model.createNeighborCells(nLines, nCols);
+        this.tiles = new int[this.nCells];
+        this.cells = new int[this.nCells];
+        this.placed = new boolean[this.nCells];
+        this.path = new int[128];
+    }
+
+    /**
+     * @param board piece at each cell (line * nCols + col), a solvable board
+     * @return the empty cell before and after each move of a solution, so the
+     * solution has length - 1 moves
+     */
+    int[] solve(int[] board) {
+        System.arraycopy(board, 0, this.tiles, 0, board.length);
+        for (int cell = 0; cell < board.length; cell++) {
+            this.cells[board[cell]] = cell;
+        }
+        Arrays.fill(this.placed, false);
+        this.path[0] = this.cells[Model.EMPTY];
+        this.length = 0;
+        for (int line = 0; line < this.nLines - 2; line++) {
+            int first = line * this.nCols;
+            for (int col = 0; col < this.nCols - 2; col++) {
+                this.place(first + col);
+            }
+            this.place(first + this.nCols - 2, first + this.nCols - 1);
+        }
+        int first = (this.nLines - 2) * this.nCols;
+        for (int col = 0; col < this.nCols - 2; col++) {
+            this.place(first + col, first + this.nCols + col);
+        }
+        int last = this.nCells - 1;
+        this.place(last - this.nCols - 1, last - this.nCols, last - 1);
+        return Arrays.copyOf(this.path, this.length + 1);
+    }
+
+    /**
+     * Moves the pieces of the given cells of the winning position to them,
+     * by the fewest moves that do not go through placed cells, and marks them placed
+     *
+     * @param targets one to three cells
+     */
+    private void place(int... targets) {
+        int start = this.cells[Model.EMPTY];
+        for (int target : targets) {
+            start = start * this.nCells + this.cells[target + 1];
+        }
+        StateIndex parents = new StateIndex();
+        parents.put(start, start);
+        int[] queue = {start};
+        int head = 0;
+        int tail = 1;
+        int[] at = new int[targets.length];
+        int goal;
+        while (true) {
+            if (head == tail) {
+                throw new IllegalArgumentException("Board is not solvable");
+            }
+            int state = queue[head++];
+            int empty = this.decode(state, at);
+            if (Arrays.equals(at, targets)) {
+                goal = state;
+                break;
+            }
+            for (int next : this.neighborCells[empty]) {
+                if (this.placed[next]) {
+                    continue;
+                }
+                int moved = next; // the empty cell, then the pieces, one swapping with it
+                for (int cell : at) {
+                    moved = moved * this.nCells + (cell == next ? empty : cell);
+                }
+                if (parents.get(moved) == StateIndex.ABSENT) {
+                    parents.put(moved, state);
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, 2 * queue.length);
+                    }
+                    queue[tail++] = moved;
+                }
+            }
+        }
+        int moves = 0;
+        for (int state = goal; state != start; state = parents.get(state)) {
+            moves++;
+        }
+        if (this.path.length <= this.length + moves) {
+            this.path = Arrays.copyOf(this.path, 2 * (this.length + moves + 1));
+        }
+        int g = this.length + moves;
+        for (int state = goal; state != start; state = parents.get(state)) {
+            this.path[g--] = this.decode(state, at);
+        }
+        for (int m = 0; m < moves; m++) {
+            int to = this.path[this.length];
+            int from = this.path[++this.length];
+            int piece = this.tiles[from];
+            this.tiles[to] = piece;
+            this.tiles[from] = Model.EMPTY;
+            this.cells[piece] = to;
+            this.cells[Model.EMPTY] = from;
+        }
+        for (int target : targets) {
+            this.placed[target] = true;
+        }
+    }
+
+    /**
+     * @param state the empty cell and the cells of the pieces being placed, in base nCells
+     * @param at    receives the cells of the pieces
+     * @return the empty cell
+     */
+    private int decode(int state, int[] at) {
+        for (int i = at.length - 1; i >= 0; i--) {
+            at[i] = state % this.nCells;
+            state /= this.nCells;
+        }
+        return state;
+    }
+}
@@ -20,6 +20,25 @@ public record Position(int line, int col) {
         return Position.isInside(this.line(), this.col());
     }
 
+    /**
+     * Checks if position is inside a board of given size
+     * @param size number of lines and columns of the board
+     * @return true if inside, false otherwise
+     */
+    public boolean isInside(BoardSize size)
+    {
+        return size.isInside(this.line(), this.col());
+    }
+
+    /**
+     * Gets the position reflected on the main diagonal of a square board
+     * @return the position with line and column swapped
+     */
+    public Position getReflected()
+    {
+        return new Position(this.col(), this.line());
+    }
+
     /**
      * Checks if line col are inside tha board
      * @param line line
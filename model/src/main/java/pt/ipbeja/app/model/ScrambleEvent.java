@@ -0,0 +1,33 @@
+package pt.ipbeja.app.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one mix of a Model
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+@Name("pt.ipbeja.fifteen.Scramble")
+@Label("Scramble")
+@Category("Fifteen")
+@Description("Random moves that mix a board")
+@StackTrace(false)
+public class ScrambleEvent extends Event {
+    @Label("Board Size")
+    String size;
+
+    @Label("Moves")
+    int moves;
+
+    /**
+     * Creates an event without values; Model sets them before commit
+     */
+    public ScrambleEvent() {
+    }
+}
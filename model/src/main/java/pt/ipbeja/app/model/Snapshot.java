@@ -0,0 +1,147 @@
+package pt.ipbeja.app.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable view of a Model after a command: the pieces, the empty cell, the
+ * last move, the number and hash of the stored moves and the timer value
+ * Readers on any thread see a consistent board, never one in the middle of a move
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public final class Snapshot {
+    private final BoardSize size;
+    private final int[] tiles;
+    private final int emptyCell;
+    private final long stateHash;
+    private final boolean winning;
+    private final Move lastMove;
+    private final int nMoves;
+    private final long movesHash;
+    private final int timerValue;
+
+    Snapshot(BoardSize size, int[] tiles, int emptyCell, long stateHash, boolean winning, Move lastMove,
+             int nMoves, long movesHash, int timerValue) {
+        this.size = size;
+        this.tiles = tiles;
+        this.emptyCell = emptyCell;
+        this.stateHash = stateHash;
+        this.winning = winning;
+        this.lastMove = lastMove;
+        this.nMoves = nMoves;
+        this.movesHash = movesHash;
+        this.timerValue = timerValue;
+    }
+
+    /**
+     * @param value new timer value
+     * @return a copy of this snapshot with another timer value (the pieces are shared)
+     */
+    Snapshot withTimerValue(int value) {
+        return new Snapshot(this.size, this.tiles, this.emptyCell, this.stateHash, this.winning, this.lastMove, this.nMoves,
+                this.movesHash, value);
+    }
+
+    /**
+     * @return number of lines and columns
+     */
+    public BoardSize getSize() {
+        return this.size;
+    }
+
+    /**
+     * @param position a position inside the board
+     * @return the piece at position
+     */
+    public int pieceAt(Position position) {
+        return this.tiles[this.size.cellOf(position)];
+    }
+
+    /**
+     * @param cell line * cols + col
+     * @return the piece at cell
+     */
+    public int pieceAt(int cell) {
+        return this.tiles[cell];
+    }
+
+    /**
+     * @return a new array with the piece at each cell (line * cols + col)
+     */
+    public int[] tiles() {
+        return this.tiles.clone();
+    }
+
+    /**
+     * @return position of the empty cell
+     */
+    public Position emptyPosition() {
+        return this.size.positionOf(this.emptyCell);
+    }
+
+    /**
+     * @return Zobrist hash of the pieces (see Zobrist), the same for equal boards
+     */
+    public long stateHash() {
+        return this.stateHash;
+    }
+
+    /**
+     * Compares only the pieces, not the stored moves or the timer
+     *
+     * @param other another snapshot
+     * @return true if both boards have the same size and the same piece in each cell
+     */
+    public boolean sameState(Snapshot other) {
+        return this.stateHash == other.stateHash && this.size.equals(other.size)
+                && Arrays.equals(this.tiles, other.tiles);
+    }
+
+    /**
+     * @return true if all pieces are in winning positions
+     */
+    public boolean isWinning() {
+        return this.winning;
+    }
+
+    /**
+     * @return the last move played since the board was set, or null if there is none
+     */
+    public Move getLastMove() {
+        return this.lastMove;
+    }
+
+    /**
+     * @return number of stored moves
+     */
+    public int getMoves() {
+        return this.nMoves;
+    }
+
+    /**
+     * @return timer value in seconds
+     */
+    public int getTimerValue() {
+        return this.timerValue;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.stateHash) * 31 + Long.hashCode(this.movesHash);
+    }
+
+    /**
+     * Equal snapshots have the same pieces and the same stored moves, compared
+     * by their number and 64 bit hash; the last move and the timer are ignored
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Snapshot))
+            return false;
+        Snapshot other = (Snapshot) obj;
+        return this.nMoves == other.nMoves && this.movesHash == other.movesHash && this.sameState(other);
+    }
+}
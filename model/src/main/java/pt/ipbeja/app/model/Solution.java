@@ -0,0 +1,28 @@
+package pt.ipbeja.app.model;
+
+import java.util.List;
+
+/**
+ * Result of a solver: the moves to the winning position and search statistics
+ *
+ * @param moves         moves to apply in order
+ * @param nodesExpanded number of nodes expanded by the search
+ * @param nanos         wall time used by the search in nanoseconds
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public record Solution(List<Move> moves, long nodesExpanded, long nanos) {
+
+    /**
+     * @return number of moves of the solution
+     */
+    public int length() {
+        return this.moves.size();
+    }
+
+    @Override
+    public String toString() {
+        return "Solution [length=" + length() + ", nodes=" + nodesExpanded() +
+                ", ms=" + nanos() / 1_000_000 + "]";
+    }
+}
@@ -0,0 +1,40 @@
+package pt.ipbeja.app.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one solver search of a Model
+ * Costs nothing measurable unless a recording enables it
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+@Name("pt.ipbeja.fifteen.Solve")
+@Label("Solve")
+@Category("Fifteen")
+@Description("A solver search for a board")
+@StackTrace(false)
+public class SolveEvent extends Event {
+    @Label("Board Size")
+    String size;
+
+    @Label("Solver")
+    String solver;
+
+    @Label("Solution Length")
+    int length;
+
+    @Label("Nodes Expanded")
+    long nodes;
+
+    /**
+     * Creates an event without values; Model sets them before commit
+     */
+    public SolveEvent() {
+    }
+}
@@ -0,0 +1,348 @@
+package pt.ipbeja.app.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optimal solver using IDA* (iterative deepening A*)
+ * Each iteration is a depth first search limited by a bound on g + h,
+ * the bound of the next iteration is the smallest g + h above the current one
+ * The search works in place on the tiles and cells arrays and does not allocate
+ * A solver is not thread safe, use one solver per thread
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class Solver {
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    static final int FOUND = -1;
+    static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    private final int nLines;
+    private final int nCols;
+    private final int[][] neighborCells;
+    private final Heuristic heuristic;
+    private final long maxNodes;
+
+    private final int[] tiles;
+    private final int[] cells;
+    private int empty;
+    private int[] path; // path[g] is the empty cell after g moves
+    private int pathLength;
+    private long nodes;
+    private long evaluations; // calls of heuristic.update
+    private AtomicBoolean stop; // set by other threads to end the search
+
+    /**
+     * Solver for the default board with Manhattan distance and linear conflicts
+     */
+    public Solver() {
+        this(new ManhattanHeuristic());
+    }
+
+    /**
+     * @param heuristic the heuristic for the default board
+     */
+    public Solver(Heuristic heuristic) {
+        this(Model.N_LINES, Model.N_COLS, heuristic, UNLIMITED);
+    }
+
+    /**
+     * @param nLines    number of lines of the board
+     * @param nCols     number of columns of the board
+     * @param heuristic admissible heuristic for that board
+     * @param maxNodes  maximum number of nodes to expand before giving up
+     */
+    public Solver(int nLines, int nCols, Heuristic heuristic, long maxNodes) {
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.heuristic = heuristic;
+        this.maxNodes = maxNodes;
+        this.neighborCells = Model.createNeighborCells(nLines, nCols);
+        this.tiles = new int[nLines * nCols];
+        this.cells = new int[nLines * nCols];
+        this.path = new int[128];
+    }
+
+    /**
+     * Finds an optimal solution
+     *
+     * @param board piece at each cell (line * nCols + col)
+     * @return the solution or null if the maximum number of nodes was reached
+     */
+    public Solution solve(int[] board) {
+        long start = System.nanoTime();
+        this.load(board);
+        int h = this.carried();
+        int bound = this.heuristic.estimateOf(h);
+        while (true) {
+            int t = this.search(0, h, bound);
+            boolean done = t == FOUND || t == NOT_FOUND || this.nodes >= this.maxNodes;
+            if (done) {
+                Metrics.HEURISTIC_EVALUATIONS.add(this.evaluations);
+            }
+            if (t == FOUND) {
+                return new Solution(this.movesOf(this.path, this.pathLength), this.nodes,
+                        System.nanoTime() - start);
+            }
+            if (done) {
+                return null;
+            }
+            bound = t;
+        }
+    }
+
+    /**
+     * Searches from the current board, reached after g moves
+     *
+     * @param g     number of moves done (the path up to g is already set)
+     * @param h     value carried by the heuristic for the current board
+     * @param bound maximum value of g + h
+     * @return FOUND or the smallest g + h above bound
+     */
+    int search(int g, int h, int bound) {
+        if (this.path.length <= bound + 1) {
+            this.path = Arrays.copyOf(this.path, 2 * (bound + 1));
+        }
+        return this.search(g, h, bound, g > 0 ? this.path[g - 1] : -1);
+    }
+
+    /**
+     * Depth first search limited by bound
+     *
+     * @param g         number of moves done
+     * @param h         value carried by the heuristic (its estimate is the h of g + h)
+     * @param bound     maximum value of g + h
+     * @param prevEmpty empty cell before the last move (not to undo it)
+     * @return FOUND or the smallest g + h above bound
+     */
+    private int search(int g, int h, int bound, int prevEmpty) {
+        int estimate = this.heuristic.estimateOf(h);
+        int f = g + estimate;
+        if (f > bound) {
+            return f;
+        }
+        if (estimate == 0 && this.isGoal()) {
+            this.pathLength = g;
+            return FOUND;
+        }
+        if (++this.nodes >= this.maxNodes || this.stop != null && this.stop.get()) {
+            return NOT_FOUND;
+        }
+        int min = NOT_FOUND;
+        int to = this.empty;
+        for (int from : this.neighborCells[to]) {
+            if (from == prevEmpty) {
+                continue;
+            }
+            int piece = this.tiles[from];
+            this.movePiece(piece, from, to);
+            this.path[g + 1] = from;
+            this.evaluations++;
+            int t = this.search(g + 1, this.heuristic.update(h, piece, from, to, this.tiles, this.cells),
+                    bound, to);
+            this.movePiece(piece, to, from);
+            if (t == FOUND) {
+                return FOUND;
+            }
+            if (t < min) {
+                min = t;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Explores the current board up to depth, as the top of a search limited by
+     * bound, and collects the paths of the boards at that depth
+     *
+     * @param depth    depth of the collected boards
+     * @param h        value carried by the heuristic for the current board
+     * @param bound    maximum value of g + h
+     * @param frontier receives the path of empty cells to each board at depth
+     * @return FOUND if a solution is above depth, otherwise the smallest g + h above bound
+     */
+    int expandTo(int depth, int h, int bound, List<int[]> frontier) {
+        if (this.path.length <= depth) {
+            this.path = Arrays.copyOf(this.path, 2 * (depth + 1));
+        }
+        return this.expandTo(0, depth, h, bound, -1, frontier);
+    }
+
+    private int expandTo(int g, int depth, int h, int bound, int prevEmpty, List<int[]> frontier) {
+        int estimate = this.heuristic.estimateOf(h);
+        int f = g + estimate;
+        if (f > bound) {
+            return f;
+        }
+        if (estimate == 0 && this.isGoal()) {
+            this.pathLength = g;
+            return FOUND;
+        }
+        if (g == depth) {
+            frontier.add(Arrays.copyOf(this.path, g + 1));
+            return NOT_FOUND;
+        }
+        this.nodes++;
+        int min = NOT_FOUND;
+        int to = this.empty;
+        for (int from : this.neighborCells[to]) {
+            if (from == prevEmpty) {
+                continue;
+            }
+            int piece = this.tiles[from];
+            this.movePiece(piece, from, to);
+            this.path[g + 1] = from;
+            this.evaluations++;
+            int t = this.expandTo(g + 1, depth, this.heuristic.update(h, piece, from, to, this.tiles, this.cells),
+                    bound, to, frontier);
+            this.movePiece(piece, to, from);
+            if (t == FOUND) {
+                return FOUND;
+            }
+            if (t < min) {
+                min = t;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Moves the empty cell along a path, as the first moves of the search
+     *
+     * @param emptyPath empty cell after each move, starting with the current one
+     * @param length    number of moves
+     */
+    void follow(int[] emptyPath, int length) {
+        if (this.path.length <= length) {
+            this.path = Arrays.copyOf(this.path, 2 * (length + 1));
+        }
+        for (int g = 1; g <= length; g++) {
+            int from = emptyPath[g];
+            this.movePiece(this.tiles[from], from, this.empty);
+            this.path[g] = from;
+        }
+    }
+
+    /**
+     * @return the value the heuristic carries for the current board (see Heuristic.start)
+     */
+    int carried() {
+        return this.heuristic.start(this.tiles, this.cells);
+    }
+
+    /**
+     * @return true if the current board is the winning one
+     */
+    boolean isGoal() {
+        for (int cell = 0; cell < this.tiles.length - 1; cell++) {
+            if (this.tiles[cell] != cell + 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the empty cell of the current board
+     */
+    int empty() {
+        return this.empty;
+    }
+
+    /**
+     * @return copy of the path of the solution found by the last search
+     */
+    int[] solutionPath() {
+        return Arrays.copyOf(this.path, this.pathLength + 1);
+    }
+
+    /**
+     * @return number of nodes expanded since the last board was loaded
+     */
+    long nodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return number of heuristic updates since the last board was loaded
+     */
+    long evaluations() {
+        return this.evaluations;
+    }
+
+    /**
+     * @param stop flag that ends the search when set
+     */
+    void setStop(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    private void movePiece(int piece, int from, int to) {
+        this.tiles[to] = piece;
+        this.tiles[from] = Model.EMPTY;
+        this.cells[piece] = to;
+        this.cells[Model.EMPTY] = from;
+        this.empty = from;
+    }
+
+    /**
+     * Copies a board into the solver, as the start of the path
+     *
+     * @param board piece at each cell
+     */
+    void load(int[] board) {
+        assert (board.length == this.tiles.length);
+        System.arraycopy(board, 0, this.tiles, 0, board.length);
+        for (int cell = 0; cell < board.length; cell++) {
+            this.cells[board[cell]] = cell;
+        }
+        this.empty = this.cells[Model.EMPTY];
+        this.path[0] = this.empty;
+        this.nodes = 0;
+        this.evaluations = 0;
+    }
+
+    /**
+     * Converts a path of empty cells into moves
+     *
+     * @param emptyPath empty cell after each move, starting with the initial one
+     * @param length    number of moves
+     * @return the moves, each one from the new empty cell to the previous one
+     */
+    List<Move> movesOf(int[] emptyPath, int length) {
+        List<Move> moves = new ArrayList<>(length);
+        for (int g = 1; g <= length; g++) {
+            moves.add(new Move(this.positionOf(emptyPath[g]), this.positionOf(emptyPath[g - 1])));
+        }
+        return moves;
+    }
+
+    private Position positionOf(int cell) {
+        return new Position(cell / this.nCols, cell % this.nCols);
+    }
+
+    /**
+     * @return number of lines of the boards solved
+     */
+    public int getLines() {
+        return this.nLines;
+    }
+
+    /**
+     * @return number of columns of the boards solved
+     */
+    public int getCols() {
+        return this.nCols;
+    }
+
+    /**
+     * @return the heuristic of this solver
+     */
+    public Heuristic getHeuristic() {
+        return this.heuristic;
+    }
+}
@@ -0,0 +1,123 @@
+package pt.ipbeja.app.model;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from board key (see Board.stateKey) to a non
+ * negative int, in two primitive arrays, so adding a board allocates nothing
+ * until the table doubles
+ * Slots are probed linearly; value 0 marks a free slot (values are stored
+ * plus one), and removal shifts the following keys back, so no tombstones
+ * are left
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+final class StateIndex {
+    static final int ABSENT = -1;
+
+    private static final int MIN_CAPACITY = 1 << 6;
+
+    private long[] keys;
+    private int[] values; // value + 1, or 0 if the slot is free
+    private int size;
+
+    StateIndex() {
+        this.keys = new long[MIN_CAPACITY];
+        this.values = new int[MIN_CAPACITY];
+    }
+
+    private int slotOf(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & (this.keys.length - 1);
+    }
+
+    /**
+     * @param key a board key
+     * @return the value of key, or ABSENT
+     */
+    int get(long key) {
+        int mask = this.keys.length - 1;
+        for (int slot = this.slotOf(key); this.values[slot] != 0; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == key) {
+                return this.values[slot] - 1;
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Adds or replaces the value of key
+     *
+     * @param key   a board key
+     * @param value from 0 to Integer.MAX_VALUE - 1
+     */
+    void put(long key, int value) {
+        if (2 * (this.size + 1) > this.keys.length) {
+            this.grow();
+        }
+        int mask = this.keys.length - 1;
+        int slot = this.slotOf(key);
+        while (this.values[slot] != 0 && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (this.values[slot] == 0) {
+            this.size++;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value + 1;
+    }
+
+    /**
+     * @param key a board key
+     */
+    void remove(long key) {
+        int mask = this.keys.length - 1;
+        int slot = this.slotOf(key);
+        while (this.values[slot] != 0 && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (this.values[slot] == 0) {
+            return;
+        }
+        this.size--;
+        // moves back each following key that may not be found past the hole
+        for (int next = (slot + 1) & mask; this.values[next] != 0; next = (next + 1) & mask) {
+            int home = this.slotOf(this.keys[next]);
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                this.keys[slot] = this.keys[next];
+                this.values[slot] = this.values[next];
+                slot = next;
+            }
+        }
+        this.values[slot] = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        this.keys = new long[2 * oldKeys.length];
+        this.values = new int[2 * oldKeys.length];
+        this.size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != 0) {
+                this.put(oldKeys[slot], oldValues[slot] - 1);
+            }
+        }
+    }
+
+    /**
+     * Removes all keys, keeping the memory
+     */
+    void clear() {
+        Arrays.fill(this.values, 0);
+        this.size = 0;
+    }
+
+    /**
+     * @return number of keys
+     */
+    int size() {
+        return this.size;
+    }
+}
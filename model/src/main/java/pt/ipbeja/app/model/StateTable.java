@@ -0,0 +1,359 @@
+package pt.ipbeja.app.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Distance to the goal of every board of a small size (3x3, 2x4, 3x4, ...)
+ * Each board is indexed by the rank of the cells of all its pieces (a minimal
+ * perfect hash of the permutations) and stores its distance modulo 3 in two
+ * bits (3 means not reachable). Neighbor boards are at distance d - 1 or d + 1,
+ * so the neighbor with value (v + 2) % 3 is one move closer: an optimal
+ * solution is found by greedy descent, without search.
+ * The table is built once by breadth first search and saved in a file that is
+ * memory mapped; 3x3 takes 90 KB, 3x4 120 MB
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public class StateTable {
+    private static final int MAGIC = 0x53544231; // "STB1"
+    private static final int HEADER_BYTES = 4 * 4;
+    private static final int UNREACHABLE = 3;
+    private static final int WORDS_PER_TASK = 1 << 10;
+
+    private final int nLines;
+    private final int nCols;
+    private final int nCells;
+    private final int[] pieces; // 1 .. nCells - 1, the pattern of all pieces
+    private final int[][] neighbors;
+    private final long goalRank;
+    private final int maxDistance;
+    private final ByteBuffer table;
+
+    private StateTable(int nLines, int nCols, int maxDistance, ByteBuffer table) {
+        this.nLines = nLines;
+        this.nCols = nCols;
+        this.nCells = nLines * nCols;
+        this.pieces = new int[this.nCells - 1];
+        int[] goal = new int[this.nCells];
+        for (int piece = 1; piece < this.nCells; piece++) {
+            this.pieces[piece - 1] = piece;
+            goal[piece] = piece - 1;
+        }
+        this.neighbors = Model.createNeighborCells(nLines, nCols);
+        this.goalRank = PatternDatabase.rank(this.pieces, goal, this.nCells);
+        this.maxDistance = maxDistance;
+        this.table = table;
+    }
+
+    /**
+     * Loads the table from file, or builds and saves it if the file does not exist
+     *
+     * @param file   the table file
+     * @param nLines number of lines of the board
+     * @param nCols  number of columns of the board
+     * @return the table
+     * @throws IOException if the file cannot be read or written
+     */
+    public static StateTable loadOrBuild(Path file, int nLines, int nCols) throws IOException {
+        if (!Files.exists(file)) {
+            StateTable.build(nLines, nCols).save(file);
+        }
+        StateTable table = StateTable.load(file);
+        if (table.nLines != nLines || table.nCols != nCols) {
+            throw new IOException("State table " + file + " was built for other board");
+        }
+        return table;
+    }
+
+    /**
+     * Maps a table file in memory
+     *
+     * @param file the table file
+     * @return the table
+     * @throws IOException if the file cannot be read or is not a state table
+     */
+    public static StateTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a state table: " + file);
+            }
+            int nLines = buffer.getInt();
+            int nCols = buffer.getInt();
+            int maxDistance = buffer.getInt();
+            if (buffer.remaining() != bytesFor(nLines * nCols)) {
+                throw new IOException("Truncated state table: " + file);
+            }
+            return new StateTable(nLines, nCols, maxDistance, buffer.slice());
+        }
+    }
+
+    /**
+     * Saves the table; the file is written aside and then moved into place
+     *
+     * @param file the table file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(this.nLines).putInt(this.nCols).putInt(this.maxDistance);
+            header.flip();
+            writeFully(channel, header);
+            writeFully(channel, this.table.duplicate().clear());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @param nCells number of cells
+     * @return bytes of the table: two bits for each of the nCells! ranks
+     */
+    private static long bytesFor(int nCells) {
+        return (PatternDatabase.tableSize(nCells, nCells - 1) + 3) / 4;
+    }
+
+    /**
+     * Builds the table in memory by breadth first search from the winning position
+     * Each layer is kept as a bitmap of ranks (one bit per board, 3x4 needs two
+     * of 60 MB besides the table), so each board is expanded once; the words
+     * of the bitmap are split among the threads of the common fork/join pool
+     *
+     * @param nLines number of lines of the board
+     * @param nCols  number of columns of the board
+     * @return the table
+     * @throws IllegalArgumentException if the board has more than 12 cells
+     */
+    public static StateTable build(int nLines, int nCols) {
+        int nCells = nLines * nCols;
+        long bytes = bytesFor(nCells);
+        if (bytes > Integer.MAX_VALUE - 8 || nCells > 12) {
+            throw new IllegalArgumentException("State tables need at most 12 cells: " + nLines + "x" + nCols);
+        }
+        byte[] table = new byte[(int) bytes];
+        Arrays.fill(table, (byte) -1); // all UNREACHABLE
+        StateTable builder = new StateTable(nLines, nCols, 0, ByteBuffer.wrap(table));
+        int maxDistance = builder.search(table);
+        return new StateTable(nLines, nCols, maxDistance, ByteBuffer.wrap(table));
+    }
+
+    private int search(byte[] table) {
+        long size = PatternDatabase.tableSize(this.nCells, this.nCells - 1);
+        int words = (int) ((size + 63) / 64);
+        int tasks = (words + WORDS_PER_TASK - 1) / WORDS_PER_TASK;
+        AtomicLongArray frontier = new AtomicLongArray(words);
+        AtomicLongArray next = new AtomicLongArray(words);
+        set(table, this.goalRank, 0);
+        setBit(frontier, this.goalRank);
+        int depth = 0;
+        while (true) {
+            AtomicLongArray layer = frontier;
+            AtomicLongArray found = next;
+            IntStream.range(0, tasks).parallel().forEach(task -> {
+                int[] cells = new int[this.nCells];
+                int[] patternCells = new int[this.nCells - 1];
+                int[] tiles = new int[this.nCells];
+                int end = Math.min(words, (task + 1) * WORDS_PER_TASK);
+                for (int w = task * WORDS_PER_TASK; w < end; w++) {
+                    long bits = layer.get(w);
+                    while (bits != 0) {
+                        long rank = 64L * w + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        this.expand(table, rank, found, patternCells, cells, tiles);
+                    }
+                }
+            });
+            // the table is only read while expanding; each word of found owns 16 bytes of it
+            int value = (depth + 1) % 3;
+            boolean any = IntStream.range(0, tasks).parallel().map(task -> {
+                int marked = 0;
+                int end = Math.min(words, (task + 1) * WORDS_PER_TASK);
+                for (int w = task * WORDS_PER_TASK; w < end; w++) {
+                    layer.set(w, 0);
+                    long bits = found.get(w);
+                    marked |= bits != 0 ? 1 : 0;
+                    while (bits != 0) {
+                        set(table, 64L * w + Long.numberOfTrailingZeros(bits), value);
+                        bits &= bits - 1;
+                    }
+                }
+                return marked;
+            }).sum() > 0;
+            if (!any) {
+                return depth;
+            }
+            depth++;
+            frontier = found;
+            next = layer;
+        }
+    }
+
+    /**
+     * Marks in found the neighbors of a board that are not in the table yet
+     */
+    private void expand(byte[] table, long rank, AtomicLongArray found,
+                        int[] patternCells, int[] cells, int[] tiles) {
+        int empty = this.unrank(rank, patternCells, cells, tiles);
+        for (int from : this.neighbors[empty]) {
+            int piece = tiles[from];
+            cells[piece] = empty;
+            long neighbor = PatternDatabase.rank(this.pieces, cells, this.nCells);
+            cells[piece] = from;
+            if (get(table, neighbor) == UNREACHABLE) {
+                setBit(found, neighbor);
+            }
+        }
+    }
+
+    private static void setBit(AtomicLongArray bits, long index) {
+        int w = (int) (index >>> 6);
+        long mask = 1L << index;
+        long old = bits.get(w);
+        while ((old & mask) == 0) {
+            long witness = bits.compareAndExchange(w, old, old | mask);
+            if (witness == old) {
+                return;
+            }
+            old = witness;
+        }
+    }
+
+    /**
+     * Fills cells (by piece) and tiles (by cell) of a rank
+     *
+     * @return the empty cell
+     */
+    private int unrank(long rank, int[] patternCells, int[] cells, int[] tiles) {
+        PatternDatabase.unrank(rank, patternCells, this.nCells);
+        int empty = this.nCells * (this.nCells - 1) / 2; // sum of all cells
+        for (int i = 0; i < patternCells.length; i++) {
+            cells[i + 1] = patternCells[i];
+            tiles[patternCells[i]] = i + 1;
+            empty -= patternCells[i];
+        }
+        cells[Model.EMPTY] = empty;
+        tiles[empty] = Model.EMPTY;
+        return empty;
+    }
+
+    private static int get(byte[] table, long rank) {
+        return (table[(int) (rank >>> 2)] >>> ((rank & 3) << 1)) & 3;
+    }
+
+    private static void set(byte[] table, long rank, int value) {
+        int shift = (int) (rank & 3) << 1;
+        int i = (int) (rank >>> 2);
+        table[i] = (byte) (table[i] & ~(3 << shift) | value << shift);
+    }
+
+    private int valueOf(long rank) {
+        return (this.table.get((int) (rank >>> 2)) >>> ((rank & 3) << 1)) & 3;
+    }
+
+    /**
+     * Finds an optimal solution by greedy descent: each step looks at the
+     * neighbors of the empty cell only
+     *
+     * @param board piece at each cell (line * cols + col)
+     * @return the solution, or null if the board is not solvable
+     */
+    public Solution solve(int[] board) {
+        long start = System.nanoTime();
+        int[] tiles = board.clone();
+        int[] cells = new int[this.nCells];
+        for (int cell = 0; cell < this.nCells; cell++) {
+            cells[tiles[cell]] = cell;
+        }
+        long rank = PatternDatabase.rank(this.pieces, cells, this.nCells);
+        int value = this.valueOf(rank);
+        if (value == UNREACHABLE) {
+            return null;
+        }
+        List<Move> moves = new ArrayList<>();
+        int empty = cells[Model.EMPTY];
+        while (rank != this.goalRank) {
+            int closer = (value + 2) % 3;
+            for (int from : this.neighbors[empty]) {
+                int piece = tiles[from];
+                cells[piece] = empty;
+                long neighbor = PatternDatabase.rank(this.pieces, cells, this.nCells);
+                if (this.valueOf(neighbor) == closer) {
+                    moves.add(new Move(this.positionOf(from), this.positionOf(empty)));
+                    tiles[empty] = piece;
+                    tiles[from] = Model.EMPTY;
+                    empty = from;
+                    rank = neighbor;
+                    value = closer;
+                    break;
+                }
+                cells[piece] = from;
+            }
+        }
+        return new Solution(moves, moves.size(), System.nanoTime() - start);
+    }
+
+    private Position positionOf(int cell) {
+        return new Position(cell / this.nCols, cell % this.nCols);
+    }
+
+    /**
+     * @param board piece at each cell
+     * @return number of moves of an optimal solution, or -1 if the board is not solvable
+     */
+    public int distance(int[] board) {
+        Solution solution = this.solve(board);
+        return solution == null ? -1 : solution.length();
+    }
+
+    /**
+     * @return the largest distance to the goal (31 for 3x3)
+     */
+    public int getMaxDistance() {
+        return this.maxDistance;
+    }
+
+    /**
+     * @return number of lines and columns of the boards of this table
+     */
+    public BoardSize getSize() {
+        return new BoardSize(this.nLines, this.nCols);
+    }
+
+    /**
+     * Builds a table file
+     * Usage: StateTable LxC file
+     *
+     * @param args the board size and the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        BoardSize size = BoardSize.parse(args[0]);
+        long start = System.nanoTime();
+        StateTable table = StateTable.loadOrBuild(Path.of(args[1]), size.lines(), size.cols());
+        System.out.printf("%s: max distance %d, %.1f s%n", size, table.getMaxDistance(),
+                (System.nanoTime() - start) / 1e9);
+    }
+}
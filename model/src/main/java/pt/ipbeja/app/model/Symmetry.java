@@ -0,0 +1,92 @@
+package pt.ipbeja.app.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reflection of a square board on its main diagonal: the piece at (line, col)
+ * goes to (col, line) and is relabelled to the piece whose winning cell is the
+ * reflection of its own, so the winning position is its own reflection and a
+ * board and its reflection are the same number of moves away from it.
+ * Directions of the empty cell swap UP with LEFT and DOWN with RIGHT
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+final class Symmetry {
+    private static final Map<BoardSize, Symmetry> SQUARE = new ConcurrentHashMap<>();
+
+    private final int[] cells;  // [cell] the reflected cell
+    private final int[] pieces; // [piece] the relabelled piece
+
+    private Symmetry(int n) {
+        this.cells = new int[n * n];
+        for (int cell = 0; cell < this.cells.length; cell++) {
+            this.cells[cell] = (cell % n) * n + cell / n;
+        }
+        this.pieces = new int[n * n];
+        for (int piece = 1; piece < this.pieces.length; piece++) {
+            this.pieces[piece] = this.cells[piece - 1] + 1;
+        }
+    }
+
+    /**
+     * @param size number of lines and columns
+     * @return the reflection of boards of that size, or null if they are not square
+     */
+    static Symmetry of(BoardSize size) {
+        if (size.lines() != size.cols()) {
+            return null;
+        }
+        return SQUARE.computeIfAbsent(size, s -> new Symmetry(s.lines()));
+    }
+
+    /**
+     * @param cell a cell
+     * @return the reflected cell
+     */
+    int cell(int cell) {
+        return this.cells[cell];
+    }
+
+    /**
+     * @param piece a piece (EMPTY stays EMPTY)
+     * @return the relabelled piece
+     */
+    int piece(int piece) {
+        return this.pieces[piece];
+    }
+
+    /**
+     * @param tiles piece at each cell (not changed)
+     * @return a new array with the reflected board
+     */
+    int[] reflect(int[] tiles) {
+        int[] reflected = new int[tiles.length];
+        for (int cell = 0; cell < tiles.length; cell++) {
+            reflected[this.cells[cell]] = this.pieces[tiles[cell]];
+        }
+        return reflected;
+    }
+
+    /**
+     * @param packed packed board
+     * @return the reflected packed board
+     */
+    long reflect(long packed) {
+        long reflected = 0;
+        for (int cell = 0; cell < this.cells.length; cell++) {
+            long piece = this.pieces[PackedBoard.pieceAt(packed, cell)];
+            reflected |= piece << (this.cells[cell] << 2);
+        }
+        return reflected;
+    }
+
+    /**
+     * @param direction UP, LEFT, RIGHT or DOWN, as in MoveHistory
+     * @return the reflected direction
+     */
+    static int direction(int direction) {
+        return direction ^ 1;
+    }
+}
@@ -0,0 +1,30 @@
+package pt.ipbeja.app.model;
+
+import java.util.List;
+
+/**
+ * The fifteen puzzle view
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public interface View {
+    void notifyView(Move move, Boolean winning, int tValue);
+
+    /**
+     * Notifies several moves at once, in the order they were executed
+     * By default each move is notified on its own
+     *
+     * @param moves   the executed moves, empty if only the timer changed
+     * @param winning true if the last move reached the winning position
+     * @param tValue  current time count
+     */
+    default void notifyView(List<Move> moves, Boolean winning, int tValue) {
+        if (moves.isEmpty()) {
+            this.notifyView((Move) null, winning, tValue);
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            this.notifyView(moves.get(i), winning && i == moves.size() - 1, tValue);
+        }
+    }
+}
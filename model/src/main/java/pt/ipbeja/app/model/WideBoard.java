@@ -0,0 +1,70 @@
+package pt.ipbeja.app.model;
+
+import java.util.Arrays;
+
+/**
+ * Board with more than 16 cells, one byte per cell
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+final class WideBoard extends Board {
+    private final byte[] pieces;
+
+    WideBoard(int nCells) {
+        super(nCells);
+        this.pieces = new byte[nCells];
+    }
+
+    @Override
+    int pieceAt(int cell) {
+        return this.pieces[cell];
+    }
+
+    @Override
+    void moveEmptyTo(int cell) {
+        this.stateHash = Zobrist.move(this.stateHash, this.pieces[cell], cell, this.emptyCell);
+        this.pieces[this.emptyCell] = this.pieces[cell];
+        this.pieces[cell] = Model.EMPTY;
+        this.emptyCell = cell;
+    }
+
+    @Override
+    boolean isGoal() {
+        if (this.emptyCell != this.nCells - 1) {
+            return false;
+        }
+        for (int cell = 0; cell < this.nCells - 1; cell++) {
+            if (this.pieces[cell] != cell + 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void reset() {
+        for (int cell = 0; cell < this.nCells - 1; cell++) {
+            this.pieces[cell] = (byte) (cell + 1);
+        }
+        this.pieces[this.nCells - 1] = Model.EMPTY;
+        this.emptyCell = this.nCells - 1;
+        this.stateHash = Zobrist.goal(this.nCells);
+    }
+
+    @Override
+    void setTiles(int[] tiles) {
+        for (int cell = 0; cell < tiles.length; cell++) {
+            this.pieces[cell] = (byte) tiles[cell];
+            if (tiles[cell] == Model.EMPTY) {
+                this.emptyCell = cell;
+            }
+        }
+        this.stateHash = Zobrist.hash(tiles);
+    }
+
+    @Override
+    boolean sameState(Board other) {
+        return other instanceof WideBoard && this.stateHash == other.stateHash && Arrays.equals(this.pieces, ((WideBoard) other).pieces);
+    }
+}
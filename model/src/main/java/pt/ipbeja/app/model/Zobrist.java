@@ -0,0 +1,76 @@
+package pt.ipbeja.app.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hash of a board: the xor of one random key for each (piece, cell)
+ * A move changes the cell of one piece, so the hash is updated with two xors
+ * The empty has key zero, as its cell follows from the cells of the pieces
+ * The keys come from a fixed seed, so hashes are the same in every run and
+ * can be stored
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public final class Zobrist {
+    private static final int MAX_CELLS = BoardSize.MAX * BoardSize.MAX;
+    private static final long[] KEYS = createKeys(0x15_2025_05_12L);
+
+    private Zobrist() {
+    }
+
+    private static long[] createKeys(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] keys = new long[MAX_CELLS * MAX_CELLS];
+        for (int cell = 0; cell < MAX_CELLS; cell++) {
+            for (int piece = 1; piece < MAX_CELLS; piece++) {
+                keys[cell * MAX_CELLS + piece] = random.nextLong();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @param piece a piece or EMPTY
+     * @param cell  a cell
+     * @return the key of piece at cell
+     */
+    public static long key(int piece, int cell) {
+        return KEYS[cell * MAX_CELLS + piece];
+    }
+
+    /**
+     * @param tiles piece at each cell
+     * @return the hash of the board
+     */
+    public static long hash(int[] tiles) {
+        long hash = 0;
+        for (int cell = 0; cell < tiles.length; cell++) {
+            hash ^= Zobrist.key(tiles[cell], cell);
+        }
+        return hash;
+    }
+
+    /**
+     * @param nCells number of cells
+     * @return the hash of the winning position
+     */
+    public static long goal(int nCells) {
+        long hash = 0;
+        for (int cell = 0; cell < nCells - 1; cell++) {
+            hash ^= Zobrist.key(cell + 1, cell);
+        }
+        return hash;
+    }
+
+    /**
+     * @param hash  hash before the move
+     * @param piece the moved piece
+     * @param from  cell of the piece before the move
+     * @param to    cell of the piece after the move (the empty cell before)
+     * @return hash after the move
+     */
+    public static long move(long hash, int piece, int from, int to) {
+        return hash ^ KEYS[from * MAX_CELLS + piece] ^ KEYS[to * MAX_CELLS + piece];
+    }
+}
@@ -0,0 +1,101 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.AnytimeSolver;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Solver;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnytimeSolverTest {
+
+    @Test
+    @DisplayName("with time enough the solution is proven optimal")
+    void testOptimal() {
+        Random random = new Random(20);
+        BoardSize size = new BoardSize(3, 3);
+        ManhattanHeuristic heuristic = new ManhattanHeuristic(3, 3, true);
+        AnytimeSolver anytime = new AnytimeSolver(3, 3, heuristic);
+        Solver solver = new Solver(3, 3, heuristic, Solver.UNLIMITED);
+        for (int i = 0; i < 10; i++) {
+            int[] tiles = Model.randomSolvableTiles(size, random);
+            AnytimeSolver.Result result = anytime.solve(tiles, 10, TimeUnit.SECONDS);
+            assertTrue(result.isOptimal());
+            assertEquals(1.0, result.suboptimality());
+            assertEquals(solver.solve(tiles).length(), result.solution().length());
+        }
+    }
+
+    @Test
+    @DisplayName("a 5x5 board is solved within the deadline with a proven bound")
+    void testDeadline() {
+        BoardSize size = new BoardSize(5, 5);
+        Model model = new Model((move, winning, tValue) -> {}, size);
+        int[] tiles = Model.randomSolvableTiles(size, new Random(300));
+        model.setBoard(tiles);
+        AnytimeSolver anytime = new AnytimeSolver(5, 5, new ManhattanHeuristic(5, 5, true));
+        long start = System.nanoTime();
+        AnytimeSolver.Result result = anytime.solve(tiles, 100, TimeUnit.MILLISECONDS);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        Solution solution = result.solution();
+        assertNotNull(solution);
+        assertTrue(result.lowerBound() <= solution.length());
+        assertTrue(result.suboptimality() >= 1 && result.suboptimality() <= 20);
+        for (Move m : solution.moves()) {
+            assertTrue(model.pieceSelected(m.begin()));
+        }
+        assertTrue(model.inWinningPositions());
+    }
+
+    @Test
+    @DisplayName("with no time left the board is still solved, by placing the pieces in order")
+    void testNoTime() {
+        Random random = new Random(7);
+        for (BoardSize size : List.of(new BoardSize(2, 2), new BoardSize(2, 5), new BoardSize(5, 2),
+                new BoardSize(3, 4), new BoardSize(7, 7))) {
+            for (int i = 0; i < 5; i++) {
+                Model model = new Model((move, winning, tValue) -> {}, size);
+                int[] tiles = Model.randomSolvableTiles(size, random);
+                model.setBoard(tiles);
+                AnytimeSolver anytime = new AnytimeSolver(size.lines(), size.cols(),
+                        new ManhattanHeuristic(size.lines(), size.cols(), true));
+                AnytimeSolver.Result result = anytime.solve(tiles, 0, TimeUnit.MILLISECONDS);
+                assertNotNull(result.solution());
+                for (Move m : result.solution().moves()) {
+                    assertTrue(model.pieceSelected(m.begin()));
+                }
+                assertTrue(model.inWinningPositions());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("in the background each result is as short or shorter, until cancelled")
+    void testImprovements() throws InterruptedException {
+        BoardSize size = new BoardSize(4, 4);
+        int[] tiles = Model.randomSolvableTiles(size, new Random(5));
+        AnytimeSolver anytime = new AnytimeSolver(4, 4, new ManhattanHeuristic(4, 4, true));
+        List<AnytimeSolver.Result> improvements = new CopyOnWriteArrayList<>();
+        AnytimeSolver.Result first = anytime.solve(tiles, 50, TimeUnit.MILLISECONDS, improvements::add);
+        Thread.sleep(200);
+        anytime.cancel();
+        assertFalse(improvements.isEmpty());
+        if (first.solution() != null) {
+            assertTrue(improvements.contains(first));
+        }
+        for (int i = 1; i < improvements.size(); i++) {
+            assertTrue(improvements.get(i).solution().length() <= improvements.get(i - 1).solution().length());
+            assertTrue(improvements.get(i).lowerBound() >= improvements.get(i - 1).lowerBound());
+        }
+    }
+}
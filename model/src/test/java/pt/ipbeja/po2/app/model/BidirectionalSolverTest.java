@@ -0,0 +1,76 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.BidirectionalSolver;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Solver;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalSolverTest {
+    private static final long MEMORY = 64L << 20;
+
+    @Test
+    @DisplayName("solutions are as short as the ones of IDA* and solve the board")
+    void testOptimal() {
+        Random random = new Random(18);
+        for (BoardSize size : new BoardSize[]{new BoardSize(3, 3), new BoardSize(4, 4)}) {
+            BidirectionalSolver bidirectional = new BidirectionalSolver(size.lines(), size.cols(), MEMORY, null);
+            Solver solver = new Solver(size.lines(), size.cols(),
+                    new ManhattanHeuristic(size.lines(), size.cols(), true), Solver.UNLIMITED);
+            for (int i = 0; i < 5; i++) {
+                Model model = new Model((move, winning, tValue) -> {}, size);
+                model.mix(size.lines() == 3 ? 60 : 24, 60);
+                int[] tiles = model.snapshot().tiles();
+                Solution solution = bidirectional.solve(tiles);
+                assertEquals(solver.solve(tiles).length(), solution.length());
+                assertFalse(bidirectional.capReached());
+                for (Move m : solution.moves()) {
+                    assertTrue(model.pieceSelected(m.begin()));
+                }
+                assertTrue(model.inWinningPositions());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("at the memory cap the fallback solves the board, or there is no solution")
+    void testMemoryCap() {
+        int[] tiles = {8, 6, 7, 2, 5, 4, 3, 0, 1}; // 31 moves
+        Solver solver = new Solver(3, 3, new ManhattanHeuristic(3, 3, true), Solver.UNLIMITED);
+        BidirectionalSolver capped = new BidirectionalSolver(3, 3, 200_000, solver);
+        assertEquals(31, capped.solve(tiles).length());
+        assertTrue(capped.capReached());
+        assertTrue(capped.bytesUsed() <= 200_000);
+        assertEquals(1, capped.solve(new int[]{1, 2, 3, 4, 5, 6, 7, 0, 8}).length()); // the maps are reused
+        assertFalse(capped.capReached());
+        assertTrue(capped.bytesUsed() <= 200_000);
+        assertNull(new BidirectionalSolver(3, 3, 200_000, null).solve(tiles));
+        assertNull(new BidirectionalSolver(3, 3, 1_000, null).solve(tiles));
+        assertNull(new BidirectionalSolver(3, 3, MEMORY, null).solve(new int[]{2, 1, 3, 4, 5, 6, 7, 8, 0}));
+    }
+
+    @Test
+    @DisplayName("the model solves with bidirectional search when it is set")
+    void testModel() {
+        Model model = new Model((move, winning, tValue) -> {});
+        model.stopTimer();
+        assertThrows(IllegalArgumentException.class,
+                () -> new Model((move, winning, tValue) -> {}, new BoardSize(5, 5)).setBidirectional(MEMORY));
+        model.setBidirectional(MEMORY);
+        model.mix(30, 40);
+        Solution solution = model.findSolution();
+        assertEquals(new Solver().solve(model.snapshot().tiles()).length(), solution.length());
+        for (Move m : solution.moves()) {
+            assertTrue(model.pieceSelected(m.begin()));
+        }
+        assertTrue(model.inWinningPositions());
+    }
+}
@@ -0,0 +1,54 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.CoalescingView;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.Position;
+import pt.ipbeja.app.model.View;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingViewTest {
+
+    @Test
+    @DisplayName("many moves are delivered in order in few updates")
+    void testCoalescing() {
+        List<List<Move>> updates = new ArrayList<>();
+        List<Integer> times = new ArrayList<>();
+        View target = new View() {
+            @Override
+            public void notifyView(Move move, Boolean winning, int tValue) {
+                fail("single moves are not expected");
+            }
+
+            @Override
+            public synchronized void notifyView(List<Move> moves, Boolean winning, int tValue) {
+                updates.add(moves);
+                times.add(tValue);
+            }
+        };
+        View view = new CoalescingView(target, TimeUnit.MILLISECONDS.toNanos(50));
+        Move right = new Move(new Position(0, 0), new Position(0, 1));
+        Move left = right.getReversed();
+        for (int i = 0; i < 1000; i++) {
+            view.notifyView(i % 2 == 0 ? right : left, false, i);
+        }
+        view.notifyView(List.of(right), true, 1000);
+
+        synchronized (target) {
+            assertTrue(updates.size() <= 3, "updates: " + updates.size());
+            List<Move> all = new ArrayList<>();
+            updates.forEach(all::addAll);
+            assertEquals(1001, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(i % 2 == 0 ? right : left, all.get(i));
+            }
+            assertEquals(1000, times.get(times.size() - 1));
+        }
+    }
+}
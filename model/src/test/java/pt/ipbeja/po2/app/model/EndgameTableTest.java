@@ -0,0 +1,61 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.EndgameTable;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Solver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndgameTableTest {
+
+    @Test
+    @DisplayName("boards within the depth get optimal solutions by lookup, others are left to search")
+    void testLookup(@TempDir Path dir) throws IOException {
+        BoardSize size = new BoardSize(4, 4);
+        Path file = dir.resolve("4x4.egt");
+        EndgameTable table = EndgameTable.loadOrBuild(file, 4, 4, 12, Long.MAX_VALUE);
+        assertEquals(12, table.getDepth());
+        assertEquals(size, table.getSize());
+        assertFalse(Files.exists(dir.resolve("4x4.egt.bfs")));
+        Solver solver = new Solver(4, 4, new ManhattanHeuristic(4, 4, true), Solver.UNLIMITED);
+        for (int i = 0; i < 20; i++) {
+            Model model = new Model((move, winning, tValue) -> {}, size);
+            model.mix(5, 30);
+            int[] tiles = model.snapshot().tiles();
+            int optimal = solver.solve(tiles).length();
+            Solution lookup = table.solve(tiles);
+            if (optimal > 12) {
+                assertNull(lookup);
+                continue;
+            }
+            assertEquals(optimal, lookup.length());
+            for (Move m : lookup.moves()) {
+                assertTrue(model.pieceSelected(m.begin()));
+            }
+            assertTrue(model.inWinningPositions());
+        }
+
+        // the search stops at the first layer that does not fit, far before depth 80
+        EndgameTable small = EndgameTable.loadOrBuild(dir.resolve("small.egt"), 4, 4, 80, 20_000);
+        assertTrue(small.getDepth() < 12);
+        assertTrue(small.states() * 9L <= 20_000);
+
+        Model model = new Model((move, winning, tValue) -> {}, size);
+        model.setEndgameTable(EndgameTable.load(file));
+        model.mix(5, 10);
+        assertNotNull(model.findSolution());
+        assertThrows(IllegalArgumentException.class,
+                () -> new Model((move, winning, tValue) -> {}, new BoardSize(3, 3)).setEndgameTable(table));
+    }
+}
@@ -0,0 +1,68 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ipbeja.app.model.ExternalBfs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalBfsTest {
+
+    @Test
+    @DisplayName("the 3x3 search finds every board once, also when resumed")
+    void testSearch(@TempDir Path dir) throws IOException {
+        ExternalBfs bfs = new ExternalBfs(dir.resolve("once"), 3, 3, 5000);
+        List<ExternalBfs.Layer> progress = new ArrayList<>();
+        List<ExternalBfs.Layer> layers = bfs.run(Integer.MAX_VALUE - 1, progress::add);
+        assertTrue(bfs.isComplete());
+        assertEquals(layers, progress);
+        assertEquals(32, layers.size()); // depths 0 to 31
+        assertEquals(181440, layers.stream().mapToLong(ExternalBfs.Layer::states).sum());
+        assertEquals(2, layers.get(1).states());
+        assertEquals(2, layers.get(31).states());
+        assertTrue(bfs.bytesWritten() > bfs.bytesRead() / 4);
+        long[] previous = {Long.MIN_VALUE};
+        bfs.forEach(20, state -> {
+            assertTrue(state > previous[0]);
+            previous[0] = state;
+        });
+
+        Path resumed = dir.resolve("resumed");
+        assertEquals(11, new ExternalBfs(resumed, 3, 3, 5000).run(10, layer -> {}).size());
+        Files.write(resumed.resolve("run-0.bin"), new byte[]{1, 2, 3}); // left by a crash
+        Files.write(resumed.resolve("layer-011.bin.tmp"), new byte[]{4});
+        ExternalBfs again = new ExternalBfs(resumed, 3, 3, 100_000);
+        assertEquals(11, again.layers().size());
+        assertEquals(layers, withoutTimes(again.run(Integer.MAX_VALUE - 1, layer -> {}), layers));
+        assertThrows(IOException.class, () -> new ExternalBfs(resumed, 2, 4, 1000));
+
+        // hundreds of runs per layer: merged in passes of bounded fan-in
+        List<ExternalBfs.Layer> small = new ExternalBfs(dir.resolve("small"), 3, 3, 200)
+                .run(Integer.MAX_VALUE - 1, layer -> {});
+        assertEquals(layers, withoutTimes(small, layers));
+        try (var files = Files.list(dir.resolve("small"))) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().startsWith("run-")));
+        }
+    }
+
+    /**
+     * @return layers with the times of expected, as times change between runs
+     */
+    private static List<ExternalBfs.Layer> withoutTimes(List<ExternalBfs.Layer> layers,
+                                                        List<ExternalBfs.Layer> expected) {
+        List<ExternalBfs.Layer> result = new ArrayList<>();
+        for (int i = 0; i < layers.size(); i++) {
+            ExternalBfs.Layer layer = layers.get(i);
+            result.add(new ExternalBfs.Layer(layer.depth(), layer.states(), layer.bytes(),
+                    expected.get(i).nanos()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.HintCache;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.MoveHistory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HintCacheTest {
+
+    @Test
+    @DisplayName("entries are found until evicted and the counters follow")
+    void testPutGetEvict() {
+        HintCache cache = new HintCache(64);
+        assertEquals(64, cache.capacity());
+        assertEquals(HintCache.NONE, cache.get(42));
+        cache.put(42, 17, MoveHistory.LEFT);
+        int entry = cache.get(42);
+        assertEquals(17, HintCache.distanceOf(entry));
+        assertEquals(MoveHistory.LEFT, HintCache.directionOf(entry));
+        for (long key = 1000; key < 2000; key++) {
+            cache.put(key, 1, MoveHistory.UP);
+        }
+        assertEquals(1000 + 1 - 64, cache.evictions());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    @DisplayName("following the hints solves the board, with hits after the first hint")
+    void testModelHint() {
+        BoardSize size = new BoardSize(3, 3);
+        Model model = new Model((move, winning, tValue) -> {}, size);
+        model.mix(30, 40);
+        HintCache cache = HintCache.shared(size);
+        long misses = cache.misses();
+        int moves = 0;
+        Move hint;
+        while ((hint = model.hint()) != null) {
+            assertTrue(model.pieceSelected(hint.begin()));
+            moves++;
+        }
+        assertTrue(model.inWinningPositions());
+        assertTrue(cache.misses() - misses <= 1);
+        assertTrue(moves <= 40);
+    }
+
+    @Test
+    @DisplayName("a board and its reflection on the main diagonal share one entry")
+    void testReflectedHint() {
+        BoardSize size = new BoardSize(3, 3);
+        HintCache cache = HintCache.shared(size);
+        Model model = new Model((move, winning, tValue) -> {}, size);
+        model.setBoard(new int[]{4, 1, 3, 7, 2, 6, 0, 5, 8});
+        Move hint = model.hint();
+
+        long hits = cache.hits();
+        Model reflected = new Model((move, winning, tValue) -> {}, size);
+        reflected.setBoard(new int[]{2, 3, 0, 1, 4, 5, 7, 8, 6});
+        assertEquals(hint.getReflected(), reflected.hint());
+        assertEquals(hits + 1, cache.hits());
+    }
+}
@@ -0,0 +1,46 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.Metrics;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Position;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @Test
+    @DisplayName("moves, notifications and solves are counted only while metrics are on")
+    void testCounters() {
+        Model model = new Model((move, winning, tValue) -> {}, new BoardSize(3, 3));
+        boolean wasEnabled = Metrics.enabled();
+        try {
+            Metrics.enable(false);
+            long moves = Metrics.MOVES.sum();
+            long notifications = Metrics.NOTIFY_VIEW.histogram().count();
+            assertTrue(model.pieceSelected(new Position(2, 1)));
+            assertEquals(moves, Metrics.MOVES.sum());
+            assertEquals(notifications, Metrics.NOTIFY_VIEW.histogram().count());
+
+            Metrics.enable(true);
+            long solves = Metrics.SOLVES.sum();
+            long evaluations = Metrics.HEURISTIC_EVALUATIONS.sum();
+            assertTrue(model.pieceSelected(new Position(2, 0)));
+            model.mix(20, 20);
+            assertNotNull(model.findSolution());
+            assertEquals(moves + 1, Metrics.MOVES.sum());
+            assertEquals(notifications + 1, Metrics.NOTIFY_VIEW.histogram().count());
+            assertEquals(solves + 1, Metrics.SOLVES.sum());
+            assertTrue(Metrics.HEURISTIC_EVALUATIONS.sum() > evaluations);
+
+            Metrics.gauge("test.answer", () -> 42);
+            String dump = Metrics.dump();
+            assertTrue(dump.contains("test.answer 42"));
+            assertTrue(dump.contains("solve.nanos count"));
+        } finally {
+            Metrics.enable(wasEnabled);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.Position;
+import pt.ipbeja.app.model.Snapshot;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Zobrist;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelTest {
+
+    private static final String GOAL_TEXT =
+            " 1  2  3  4\n" +
+            " 5  6  7  8\n" +
+            " 9 10 11 12\n" +
+            "13 14 15  0\n";
+
+    @Test
+    @DisplayName("new model is in winning position")
+    void testNewModelWins() {
+        Model model = new Model((move, winning, tValue) -> {});
+        assertTrue(model.inWinningPositions());
+        assertEquals(GOAL_TEXT, model.toString());
+        assertEquals(1, model.pieceAt(new Position(0, 0)));
+        assertEquals(15, model.pieceAt(new Position(3, 2)));
+        assertEquals(Model.EMPTY, model.pieceAt(new Position(3, 3)));
+        assertEquals("empty", model.pieceTextAt(new Position(3, 3)));
+    }
+
+    @Test
+    @DisplayName("selecting a neighbor of the empty cell moves the piece")
+    void testPieceSelected() {
+        Model model = new Model((move, winning, tValue) -> {});
+        model.pieceSelected(new Position(0, 0)); // not a neighbor: no move
+        assertTrue(model.inWinningPositions());
+
+        model.pieceSelected(new Position(3, 2));
+        assertFalse(model.inWinningPositions());
+        assertEquals(15, model.pieceAt(new Position(3, 3)));
+        assertEquals(Model.EMPTY, model.pieceAt(new Position(3, 2)));
+        assertEquals(new Move(new Position(3, 2), new Position(3, 3)), model.getLastMove());
+
+        model.pieceSelected(new Position(3, 3));
+        assertTrue(model.inWinningPositions());
+    }
+
+    @Test
+    @DisplayName("mixed board keeps every piece exactly once")
+    void testMixKeepsPieces() {
+        Model model = new Model((move, winning, tValue) -> {});
+        model.mix(100, 200);
+        boolean[] seen = new boolean[Model.N_LINES * Model.N_COLS];
+        for (int line = 0; line < Model.N_LINES; line++) {
+            for (int col = 0; col < Model.N_COLS; col++) {
+                int piece = model.pieceAt(new Position(line, col));
+                assertFalse(seen[piece]);
+                seen[piece] = true;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("boards of other sizes, packed and wide, are mixed and solved")
+    void testOtherSizes() {
+        for (BoardSize size : new BoardSize[]{new BoardSize(3, 3), new BoardSize(2, 4), new BoardSize(5, 5)}) {
+            Model model = new Model((move, winning, tValue) -> {}, size);
+            assertTrue(model.inWinningPositions());
+            assertEquals(size.cells() - 1, model.pieceAt(new Position(size.lines() - 1, size.cols() - 2)));
+            model.pieceSelected(new Position(size.lines(), 0)); // outside: no move
+            model.mix(20, 30);
+            Solution solution = model.findSolution();
+            assertNotNull(solution);
+            for (Move m : solution.moves()) {
+                model.pieceSelected(m.begin());
+            }
+            assertTrue(model.inWinningPositions());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BoardSize(8, 8));
+        assertEquals(new BoardSize(3, 4), BoardSize.parse("3x4"));
+    }
+
+    @Test
+    @DisplayName("solvability follows permutation and empty parities")
+    void testSolvable() {
+        int[] goal = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 0};
+        int[] oneMove = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 0, 15};
+        int[] swapped = {2, 1, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 0};
+        assertTrue(Model.isSolvable(goal, BoardSize.DEFAULT));
+        assertTrue(Model.isSolvable(oneMove, BoardSize.DEFAULT));
+        assertFalse(Model.isSolvable(swapped, BoardSize.DEFAULT));
+
+        Model model = new Model((move, winning, tValue) -> {});
+        assertThrows(IllegalArgumentException.class, () -> model.setBoard(swapped));
+        model.setBoard(oneMove);
+        assertEquals(Model.EMPTY, model.pieceAt(new Position(3, 2)));
+
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(Model.isSolvable(Model.randomSolvableTiles(BoardSize.DEFAULT, random), BoardSize.DEFAULT));
+        }
+        Model small = new Model((move, winning, tValue) -> {}, new BoardSize(3, 3));
+        small.shuffle();
+        Solution solution = small.findSolution();
+        for (Move m : solution.moves()) {
+            small.pieceSelected(m.begin());
+        }
+        assertTrue(small.inWinningPositions());
+    }
+
+    @Test
+    @DisplayName("timers and solve animations of many games share a few threads")
+    void testSharedScheduler() throws InterruptedException {
+        int threadsBefore = Thread.activeCount();
+        Model[] models = new Model[1000];
+        for (int i = 0; i < models.length; i++) {
+            models[i] = new Model((move, winning, tValue) -> {}, new BoardSize(3, 3));
+        }
+        assertTrue(Thread.activeCount() - threadsBefore <= 2 + Runtime.getRuntime().availableProcessors());
+        for (Model m : models) {
+            m.stopTimer();
+        }
+
+        CountDownLatch solved = new CountDownLatch(1);
+        Model model = new Model((move, winning, tValue) -> {
+            if (winning) {
+                solved.countDown();
+            }
+        });
+        model.stopTimer();
+        model.setBoard(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 0, 14, 15});
+        model.unmix(1);
+        assertTrue(solved.await(10, TimeUnit.SECONDS));
+        assertTrue(model.inWinningPositions());
+    }
+
+    @Test
+    @DisplayName("a move played during a solve animation stops it, and the board stays solvable")
+    void testMoveStopsPlayback() throws InterruptedException {
+        CountDownLatch played = new CountDownLatch(4); // three moves below, then one of the animation
+        Model model = new Model((move, winning, tValue) -> played.countDown());
+        model.stopTimer();
+        model.setBoard(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 0, 11, 13, 14, 15, 12});
+        model.pieceSelected(new Position(2, 1));
+        model.pieceSelected(new Position(1, 1));
+        model.pieceSelected(new Position(1, 2));
+        model.unmix(200);
+        assertTrue(played.await(10, TimeUnit.SECONDS));
+        Position empty = model.snapshot().emptyPosition();
+        Position cameFrom = model.getLastMove().end(); // moving it would undo the animation
+        Position neighbor = null;
+        for (int[] delta : new int[][]{{-1, 0}, {0, -1}, {0, 1}, {1, 0}}) {
+            Position p = new Position(empty.line() + delta[0], empty.col() + delta[1]);
+            if (neighbor == null && p.isInside(model.getSize()) && !p.equals(cameFrom)) {
+                neighbor = p;
+            }
+        }
+        assertTrue(model.pieceSelected(neighbor));
+        int[] tiles = model.snapshot().tiles();
+        Thread.sleep(1000);
+        assertArrayEquals(tiles, model.snapshot().tiles());
+        assertTrue(Model.isSolvable(tiles, model.getSize()));
+    }
+
+    @Test
+    @DisplayName("moves from many threads are applied one at a time and read as snapshots")
+    void testSingleWriter() throws InterruptedException {
+        AtomicInteger notified = new AtomicInteger();
+        Model model = new Model((move, winning, tValue) -> notified.incrementAndGet());
+        model.stopTimer();
+        int nThreads = 4;
+        int movesPerThread = 2000;
+        Thread[] threads = new Thread[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            Random random = new Random(t);
+            threads[t] = new Thread(() -> {
+                int moved = 0;
+                while (moved < movesPerThread) {
+                    Position empty = model.snapshot().emptyPosition();
+                    Position piece = new Position(empty.line() + random.nextInt(3) - 1, empty.col());
+                    if (model.pieceSelected(piece)) {
+                        moved++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        boolean consistent = true;
+        while (threads[nThreads - 1].isAlive()) {
+            Snapshot snapshot = model.snapshot();
+            boolean[] seen = new boolean[16];
+            for (int cell = 0; cell < 16; cell++) {
+                consistent &= !seen[snapshot.pieceAt(cell)];
+                seen[snapshot.pieceAt(cell)] = true;
+            }
+            consistent &= snapshot.pieceAt(snapshot.getSize().cellOf(snapshot.emptyPosition())) == Model.EMPTY;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(consistent);
+        assertEquals(nThreads * movesPerThread, notified.get());
+    }
+
+    @Test
+    @DisplayName("state hash and state equality ignore the moves that led to the board")
+    void testStateHash() {
+        Model direct = new Model((move, winning, tValue) -> {});
+        Model roundTrip = new Model((move, winning, tValue) -> {});
+        direct.pieceSelected(new Position(3, 2));
+        roundTrip.pieceSelected(new Position(3, 2));
+        assertFalse(direct.sameState(new Model((move, winning, tValue) -> {})));
+        roundTrip.pieceSelected(new Position(3, 3));
+        roundTrip.pieceSelected(new Position(3, 2));
+        assertTrue(direct.sameState(roundTrip));
+        assertEquals(direct.stateHash(), roundTrip.stateHash());
+        assertEquals(direct, roundTrip); // the loop is not stored
+        assertEquals(Zobrist.hash(direct.snapshot().tiles()), direct.stateHash());
+
+        Model other = new Model((move, winning, tValue) -> {});
+        other.setBoard(direct.snapshot().tiles());
+        assertTrue(direct.sameState(other));
+        assertEquals(direct.stateHash(), other.stateHash());
+        assertNotEquals(direct, other); // different stored moves
+        assertNotEquals(direct.stateHash(), new Model((move, winning, tValue) -> {}).stateHash());
+    }
+
+    @Test
+    @DisplayName("stored moves drop loops, so unmixing never replays them")
+    void testLoopsAreNotStored() {
+        Model model = new Model((move, winning, tValue) -> {});
+        model.stopTimer();
+        model.pieceSelected(new Position(3, 2));
+        model.pieceSelected(new Position(3, 3));
+        assertEquals(0, model.snapshot().getMoves());
+        assertEquals(new Move(new Position(3, 3), new Position(3, 2)), model.getLastMove());
+
+        // the empty cell goes 3 times around the last 2x2 square, back to the goal
+        Position[] square = {new Position(2, 3), new Position(2, 2), new Position(3, 2), new Position(3, 3)};
+        for (int turn = 0; turn < 3; turn++) {
+            for (Position p : square) {
+                assertTrue(model.pieceSelected(p));
+                assertTrue(model.snapshot().getMoves() <= 4 * turn + 4);
+            }
+        }
+        assertTrue(model.inWinningPositions());
+        assertEquals(0, model.snapshot().getMoves());
+
+        model.pieceSelected(new Position(2, 3));
+        model.pieceSelected(new Position(2, 2));
+        model.pieceSelected(new Position(2, 3));
+        assertEquals(1, model.snapshot().getMoves());
+        assertEquals(new Move(new Position(2, 3), new Position(2, 2)), model.getLastMove()); // played, not stored
+
+        Model mixed = new Model((move, winning, tValue) -> {}, BoardSize.parse("3x3"));
+        mixed.stopTimer();
+        mixed.mix(2000, 2000);
+        assertTrue(mixed.snapshot().getMoves() < 2000);
+    }
+
+    @Test
+    @DisplayName("only loops within the last stored moves are dropped, so memory is bounded")
+    void testLoopWindow() {
+        // the empty cell goes round the border until the pieces on it are back:
+        // 11 turns of 12 moves on 4x4, inside the window; 19 turns of 20 on 6x6, longer
+        assertEquals(0, movesAfterBorderLoop(4));
+        assertEquals(19 * 20, movesAfterBorderLoop(6));
+    }
+
+    private static int movesAfterBorderLoop(int n) {
+        Model model = new Model((move, winning, tValue) -> {}, new BoardSize(n, n));
+        model.stopTimer();
+        int ring = 4 * (n - 1);
+        for (int turn = 0; turn < ring - 1; turn++) {
+            for (int line = n - 2; line >= 0; line--) {
+                assertTrue(model.pieceSelected(new Position(line, n - 1)));
+            }
+            for (int col = n - 2; col >= 0; col--) {
+                assertTrue(model.pieceSelected(new Position(0, col)));
+            }
+            for (int line = 1; line < n; line++) {
+                assertTrue(model.pieceSelected(new Position(line, 0)));
+            }
+            for (int col = 1; col < n; col++) {
+                assertTrue(model.pieceSelected(new Position(n - 1, col)));
+            }
+        }
+        assertTrue(model.inWinningPositions());
+        return model.snapshot().getMoves();
+    }
+}
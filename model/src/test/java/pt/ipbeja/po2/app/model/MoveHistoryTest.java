@@ -0,0 +1,58 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.MoveHistory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveHistoryTest {
+
+    @Test
+    @DisplayName("history behaves as a stack of directions")
+    void testPushPop() {
+        MoveHistory history = new MoveHistory();
+        Deque<Integer> expected = new ArrayDeque<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                int d = random.nextInt(4);
+                history.push(d);
+                expected.push(d);
+            } else {
+                assertEquals(expected.pop(), history.pop());
+            }
+            assertEquals(expected.size(), history.size());
+        }
+        int back = 0;
+        for (int d : expected) {
+            assertEquals(d, history.fromLast(back++));
+        }
+        history.clear();
+        assertThrows(NoSuchElementException.class, history::peek);
+    }
+
+    @Test
+    @DisplayName("equal histories have equal hashes, also after dropping the oldest moves")
+    void testEqualsAndRing() {
+        MoveHistory a = new MoveHistory();
+        MoveHistory b = new MoveHistory(100);
+        for (int i = 0; i < 300; i++) {
+            b.push(i % 4);
+            if (i >= 200) {
+                a.push(i % 4);
+            }
+        }
+        assertEquals(100, b.size());
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        b.pop();
+        b.push(MoveHistory.reverse(a.peek()));
+        assertNotEquals(a, b);
+    }
+}
@@ -0,0 +1,108 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ipbeja.app.model.Heuristic;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.PatternDatabase;
+import pt.ipbeja.app.model.Position;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Solver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternDatabaseTest {
+
+    @Test
+    @DisplayName("mapped 5-5-5 database dominates Manhattan distance and keeps solutions optimal")
+    void testPatternDatabase(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("pdb555.bin");
+        PatternDatabase pdb = PatternDatabase.loadOrBuild(file, Model.N_LINES, Model.N_COLS,
+                PatternDatabase.PATTERNS_555);
+        PatternDatabase mapped = PatternDatabase.load(file);
+        ManhattanHeuristic manhattan = new ManhattanHeuristic(Model.N_LINES, Model.N_COLS, false);
+
+        int[] goal = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 0};
+        assertEquals(0, mapped.estimate(goal, cellsOf(goal)));
+
+        for (int i = 0; i < 20; i++) {
+            Model model = new Model((move, winning, tValue) -> {});
+            model.mix(40, 60);
+            int[] tiles = tilesOf(model);
+            int[] cells = cellsOf(tiles);
+            assertEquals(pdb.estimate(tiles, cells), mapped.estimate(tiles, cells));
+            assertTrue(mapped.estimate(tiles, cells) >= manhattan.estimate(tiles, cells));
+            int[] reflected = reflect(tiles);
+            assertEquals(mapped.estimate(tiles, cells), mapped.estimate(reflected, cellsOf(reflected)));
+            assertUpdatesMatchEstimates(mapped, tiles, new Random(i));
+
+            Solution s1 = new Solver(mapped).solve(tiles);
+            Solution s2 = new Solver().solve(tiles);
+            assertEquals(s2.length(), s1.length());
+        }
+    }
+
+    /**
+     * Moves random pieces, carrying the value of the heuristic with update,
+     * and compares it with the estimate of the whole board
+     */
+    private static void assertUpdatesMatchEstimates(Heuristic heuristic, int[] board, Random random) {
+        int[] tiles = board.clone();
+        int[] cells = cellsOf(tiles);
+        int h = heuristic.start(tiles, cells);
+        for (int m = 0; m < 100; m++) {
+            int to = cells[Model.EMPTY];
+            int[] deltas = {-Model.N_COLS, -1, 1, Model.N_COLS};
+            int from = to + deltas[random.nextInt(deltas.length)];
+            boolean inside = from >= 0 && from < tiles.length
+                    && (from / Model.N_COLS == to / Model.N_COLS || from % Model.N_COLS == to % Model.N_COLS);
+            if (!inside) {
+                continue;
+            }
+            int piece = tiles[from];
+            tiles[to] = piece;
+            tiles[from] = Model.EMPTY;
+            cells[piece] = to;
+            cells[Model.EMPTY] = from;
+            h = heuristic.update(h, piece, from, to, tiles, cells);
+            assertEquals(heuristic.estimate(tiles, cells), heuristic.estimateOf(h));
+        }
+    }
+
+    private static int[] tilesOf(Model model) {
+        int[] tiles = new int[Model.N_LINES * Model.N_COLS];
+        for (int cell = 0; cell < tiles.length; cell++) {
+            tiles[cell] = model.pieceAt(new Position(cell / Model.N_COLS, cell % Model.N_COLS));
+        }
+        return tiles;
+    }
+
+    /**
+     * Reflection on the main diagonal, relabelling each piece by the
+     * reflection of its winning cell
+     */
+    private static int[] reflect(int[] tiles) {
+        int n = Model.N_COLS;
+        int[] reflected = new int[tiles.length];
+        for (int cell = 0; cell < tiles.length; cell++) {
+            int piece = tiles[cell];
+            int goal = piece - 1;
+            reflected[(cell % n) * n + cell / n] = piece == Model.EMPTY ? piece : (goal % n) * n + goal / n + 1;
+        }
+        return reflected;
+    }
+
+    private static int[] cellsOf(int[] tiles) {
+        int[] cells = new int[tiles.length];
+        for (int cell = 0; cell < tiles.length; cell++) {
+            cells[tiles[cell]] = cell;
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,82 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import pt.ipbeja.app.model.GameScheduler;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.ParallelSolver;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+
+    @Test
+    @DisplayName("solution of a mixed board reaches the winning position")
+    void testSolutionWins() {
+        Model model = new Model((move, winning, tValue) -> {});
+        model.mix(30, 40);
+        Solution solution = model.findSolution();
+        assertNotNull(solution);
+        assertTrue(solution.length() <= 40);
+        for (Move m : solution.moves()) {
+            model.pieceSelected(m.begin());
+        }
+        assertTrue(model.inWinningPositions());
+    }
+
+    @Test
+    @DisplayName("linear conflicts keep the solution optimal")
+    void testLinearConflictIsAdmissible() {
+        int[] board = {
+                2, 1, 3, 4,
+                5, 6, 7, 8,
+                13, 10, 11, 12,
+                9, 14, 0, 15};
+        Solver manhattan = new Solver(new ManhattanHeuristic(Model.N_LINES, Model.N_COLS, false));
+        Solver conflicts = new Solver(new ManhattanHeuristic());
+        Solution s1 = manhattan.solve(board);
+        Solution s2 = conflicts.solve(board);
+        assertEquals(s1.length(), s2.length());
+        assertTrue(s2.nodesExpanded() <= s1.nodesExpanded());
+    }
+
+    @Test
+    @DisplayName("winning board has an empty solution")
+    void testWinningBoard() {
+        int[] board = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 0};
+        assertEquals(0, new Solver().solve(board).length());
+    }
+
+    @Test
+    @DisplayName("parallel solver finds solutions as short as the sequential one")
+    void testParallelSolver() {
+        try (ParallelSolver parallel = new ParallelSolver(new ManhattanHeuristic(), 4)) {
+            for (int i = 0; i < 10; i++) {
+                Model model = new Model((move, winning, tValue) -> {});
+                model.mix(30, 60);
+                Solution sequential = model.findSolution();
+                model.setParallelism(4);
+                Solution solution = model.findSolution();
+                assertEquals(sequential.length(), solution.length());
+                for (Move m : solution.moves()) {
+                    model.pieceSelected(m.begin());
+                }
+                assertTrue(model.inWinningPositions());
+            }
+            int[] board = {
+                    2, 1, 3, 4,
+                    5, 6, 7, 8,
+                    13, 10, 11, 12,
+                    9, 14, 0, 15};
+            ParallelSolver.Speedup speedup = parallel.compareWithSequential(board);
+            assertEquals(speedup.sequential().length(), speedup.parallel().length());
+        }
+        // models share one pool per parallelism, kept between solves
+        assertSame(GameScheduler.parallelSolvers(4), GameScheduler.parallelSolvers(4));
+        assertFalse(GameScheduler.parallelSolvers(4).isShutdown());
+    }
+}
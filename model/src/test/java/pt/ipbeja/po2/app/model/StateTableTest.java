@@ -0,0 +1,57 @@
+package pt.ipbeja.po2.app.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.ManhattanHeuristic;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Move;
+import pt.ipbeja.app.model.Solution;
+import pt.ipbeja.app.model.Solver;
+import pt.ipbeja.app.model.StateTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateTableTest {
+
+    @Test
+    @DisplayName("3x3 and 2x4 tables give optimal solutions, after saving and mapping")
+    void testTables(@TempDir Path dir) throws IOException {
+        Random random = new Random(3);
+        for (BoardSize size : new BoardSize[]{new BoardSize(3, 3), new BoardSize(2, 4)}) {
+            StateTable table = StateTable.loadOrBuild(dir.resolve(size + ".stb"), size.lines(), size.cols());
+            assertEquals(size, table.getSize());
+            Solver solver = new Solver(size.lines(), size.cols(),
+                    new ManhattanHeuristic(size.lines(), size.cols(), true), Solver.UNLIMITED);
+            for (int i = 0; i < 20; i++) {
+                int[] tiles = Model.randomSolvableTiles(size, random);
+                Solution lookup = table.solve(tiles);
+                assertEquals(solver.solve(tiles).length(), lookup.length());
+                assertTrue(lookup.length() <= table.getMaxDistance());
+
+                Model model = new Model((move, winning, tValue) -> {}, size);
+                model.setBoard(tiles);
+                for (Move m : lookup.moves()) {
+                    assertTrue(model.pieceSelected(m.begin()));
+                }
+                assertTrue(model.inWinningPositions());
+            }
+        }
+        StateTable mapped = StateTable.load(dir.resolve("3x3.stb"));
+        assertEquals(31, mapped.getMaxDistance());
+        assertEquals(-1, mapped.distance(new int[]{2, 1, 3, 4, 5, 6, 7, 8, 0}));
+        assertEquals(0, mapped.distance(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 0}));
+
+        Model model = new Model((move, winning, tValue) -> {}, new BoardSize(3, 3));
+        model.setStateTable(mapped);
+        model.mix(50, 60);
+        assertNotNull(model.findSolution());
+        assertThrows(IllegalArgumentException.class,
+                () -> new Model((move, winning, tValue) -> {}).setStateTable(mapped));
+    }
+}
@@ -1,5 +0,0 @@
-module pt.ipbeja {
-    requires javafx.controls;
-    exports pt.ipbeja.app.ui;
-    exports pt.ipbeja.app.model;
-}
\ No newline at end of file
@@ -1,12 +0,0 @@
-package pt.ipbeja.po2.app.model;
-
-import org.junit.jupiter.api.DisplayName;
-import org.junit.jupiter.api.Test;
-import pt.ipbeja.app.model.Model;
-
-import static org.junit.jupiter.api.Assertions.*;
-
-class ModelTest {
-
-
-}
\ No newline at end of file
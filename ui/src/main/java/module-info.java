@@ -0,0 +1,5 @@
+module pt.ipbeja {
+    requires transitive javafx.controls;
+    requires transitive pt.ipbeja.model;
+    exports pt.ipbeja.app.ui;
+}
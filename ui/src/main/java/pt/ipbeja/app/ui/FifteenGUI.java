@@ -17,6 +17,8 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.CoalescingView;
 import pt.ipbeja.app.model.Model;
 import pt.ipbeja.app.model.Move;
 import javafx.scene.image.Image;
@@ -34,7 +36,10 @@ import java.util.List;
  */
 public class FifteenGUI extends Application implements View {
     private final String ICON_FILE = "/resources/images/puzzle15.jpg";
+    private static BoardSize boardSize = BoardSize.DEFAULT;
+    private static boolean spriteSheet = false;
     private List<PieceButton> buttons;
+    private final TileImages tiles;
     private final Model model;
     private final Scene scene;
     private Button solveButton;
@@ -54,7 +59,9 @@ public class FifteenGUI extends Application implements View {
      */
     public FifteenGUI() {
         this.buttons = new ArrayList<>();
-        this.model = new Model(this);
+        this.tiles = spriteSheet ? TileImages.sprites(boardSize, TileImages.SPRITE_SHEET)
+                : TileImages.forSize(boardSize);
+        this.model = new Model(new CoalescingView(this), boardSize);
         this.mixModel();
         this.scene = this.createScene();
         this.panBtns = new GridPane();
@@ -89,8 +96,8 @@ public class FifteenGUI extends Application implements View {
     }
 
     private Pane createButtonsUI() {
-        int nRows = Model.N_LINES;
-        int nCols = Model.N_COLS;
+        int nRows = this.model.getLines();
+        int nCols = this.model.getCols();
         this.panBtns = new GridPane();
         this.panBtns.setAlignment(Pos.CENTER);
 
@@ -98,7 +105,7 @@ public class FifteenGUI extends Application implements View {
             for (int col = 0; col < nCols; col++) {
                 Position pos = new Position(row, col);
                 String text = this.model.pieceTextAt(pos);
-                PieceButton b = new PieceButton(text, pos);
+                PieceButton b = new PieceButton(text, pos, this.tiles);
                 this.panBtns.add(b, col, row);
                 this.buttons.add(b);
                 b.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
@@ -182,28 +189,45 @@ public class FifteenGUI extends Application implements View {
 
     public void updateLayoutAfterMove(Move lastMove) {
         if (lastMove != null) {
-            int line1 = lastMove.begin().line();
-            int col1 = lastMove.begin().col();
-            PieceButton b1 = this.buttons.get(line1 * Model.N_COLS + col1);
-            String text1 = b1.getText();
-
-            int line2 = lastMove.end().line();
-            int col2 = lastMove.end().col();
-            PieceButton b2 = this.buttons.get(line2 * Model.N_COLS + col2);
-            String text2 = b2.getText();
-
-            b1.setTextAndImage(text2);
-            b2.setTextAndImage(text1);
+            this.updateLayoutAfterMoves(List.of(lastMove));
+        }
+    }
+
+    /**
+     * Updates the cells changed by some moves, each one once, with the
+     * current pieces of the model
+     *
+     * @param moves the executed moves
+     */
+    public void updateLayoutAfterMoves(List<Move> moves) {
+        int nCols = this.model.getCols();
+        boolean[] dirty = new boolean[this.buttons.size()];
+        for (Move m : moves) {
+            dirty[m.begin().line() * nCols + m.begin().col()] = true;
+            dirty[m.end().line() * nCols + m.end().col()] = true;
+        }
+        for (int cell = 0; cell < dirty.length; cell++) {
+            if (dirty[cell]) {
+                PieceButton b = this.buttons.get(cell);
+                b.setTextAndImage(this.model.pieceTextAt(b.position()));
+            }
         }
     }
 
     @Override
     public void notifyView(Move lastMove, Boolean wins, int timerValue) {
+        this.notifyView(lastMove == null ? List.<Move>of() : List.of(lastMove), wins, timerValue);
+    }
+
+    /**
+     * Receives the moves of one frame (see CoalescingView) and updates the
+     * buttons in one task of the JavaFX thread
+     */
+    @Override
+    public void notifyView(List<Move> moves, Boolean wins, int timerValue) {
         Platform.runLater(() -> {
 
-            if (lastMove != null) {
-                this.updateLayoutAfterMove(lastMove);
-            }
+            this.updateLayoutAfterMoves(moves);
 
             if (wins) {
                 this.model.stopTimer();
@@ -220,9 +244,17 @@ public class FifteenGUI extends Application implements View {
 
     /**
      * Start program
-     * @param args currently not used
+     * @param args optional board size as LINESxCOLS, e.g. 3x3 (default 4x4),
+     *             and --sprite to cut the pieces from puzzle15.jpg
      */
     public static void main(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--sprite")) {
+                spriteSheet = true;
+            } else {
+                boardSize = BoardSize.parse(arg);
+            }
+        }
         Application.launch(args);
     }
 }
@@ -0,0 +1,81 @@
+package pt.ipbeja.app.ui;
+
+import javafx.scene.control.Button;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.image.ImageView;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.Model;
+import pt.ipbeja.app.model.Position;
+
+
+/**
+ * This button (knows its position in the grid)
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ * images generated in <a href="https://text2image.com/en/">...</a>
+ */
+public class PieceButton extends Button
+{
+    private final Position position;
+    private final TileImages tiles;
+    private final ImageView imageView;
+
+    public PieceButton(String text, Position position)
+    {
+        this(text, position, TileImages.files(BoardSize.DEFAULT));
+    }
+
+    /**
+     * @param text     the piece text
+     * @param position position in the grid
+     * @param tiles    the shared images of the pieces
+     */
+    public PieceButton(String text, Position position, TileImages tiles)
+    {
+        super(text);
+        this.position = position;
+        this.tiles = tiles;
+        this.imageView = new ImageView();
+        if (tiles.isSprite())
+        {
+            this.imageView.setFitWidth(TileImages.TILE_SIZE);
+            this.imageView.setFitHeight(TileImages.TILE_SIZE);
+            this.setContentDisplay(ContentDisplay.CENTER); // number over the image
+        }
+        this.setTextAndImage(text);
+    }
+
+    /**
+     * @return the position
+     */
+    Position position()
+    {
+        return this.position;
+    }
+
+    /**
+     * sets the text and image for the button
+     * The image comes from the shared cache and the image view is reused
+     *
+     * @param newText
+     *            to set
+     */
+    public void setTextAndImage(String newText)
+    {
+        this.setText(newText);
+        boolean empty = newText.isEmpty() || newText.equals("empty");
+        int piece = empty ? Model.EMPTY : Integer.parseInt(newText);
+
+        if (this.tiles.show(this.imageView, piece)) {
+            // the piece files show the number; on sprite tiles it is drawn over the image
+            this.setStyle(this.tiles.isSprite() ? "-fx-text-fill: white; -fx-font-weight: bold;"
+                    : "-fx-text-fill: transparent;");
+            this.setGraphic(this.imageView);
+        } else {
+            // no image for this piece (e.g. larger boards): show the number
+            this.setStyle(empty ? "-fx-text-fill: transparent;" : "");
+            this.setGraphic(null);
+        }
+    }
+}
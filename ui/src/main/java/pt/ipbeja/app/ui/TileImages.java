@@ -0,0 +1,123 @@
+package pt.ipbeja.app.ui;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import pt.ipbeja.app.model.BoardSize;
+import pt.ipbeja.app.model.Model;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Images of the pieces, decoded once and shared by all buttons
+ * The images come from one file per piece (/images/1.png, ..., /images/empty.png)
+ * or are regions (viewports) of one sprite sheet, cut in lines x cols tiles:
+ * each piece shows the tile of its winning cell and the empty shows nothing.
+ * Changing the image of a button only changes the image and viewport of its
+ * ImageView, without reading or decoding files
+ * Only used in the JavaFX thread
+ *
+ * @author João Paulo Barros
+ * @version 2025/05/12
+ */
+public final class TileImages {
+    public static final String SPRITE_SHEET = "/images/puzzle15.jpg";
+    public static final double TILE_SIZE = 150;
+
+    private static final Map<String, TileImages> CACHE = new HashMap<>();
+
+    private final Image[] images;
+    private final Rectangle2D[] viewports;
+    private final boolean sprite;
+
+    private TileImages(Image[] images, Rectangle2D[] viewports, boolean sprite) {
+        this.images = images;
+        this.viewports = viewports;
+        this.sprite = sprite;
+    }
+
+    /**
+     * Images from one file per piece; pieces without a file have no image
+     *
+     * @param size number of lines and columns
+     * @return the shared images for that size
+     */
+    public static TileImages files(BoardSize size) {
+        return CACHE.computeIfAbsent("files " + size, key -> {
+            Image[] images = new Image[size.cells()];
+            for (int piece = 0; piece < images.length; piece++) {
+                URL url = TileImages.class.getResource(
+                        "/images/" + (piece == Model.EMPTY ? "empty" : piece + "") + ".png");
+                images[piece] = url == null ? null : new Image(url.toExternalForm());
+            }
+            return new TileImages(images, new Rectangle2D[images.length], false);
+        });
+    }
+
+    /**
+     * Images cut from a sprite sheet
+     *
+     * @param size        number of lines and columns
+     * @param spriteSheet resource name of the sheet
+     * @return the shared images for that size and sheet
+     */
+    public static TileImages sprites(BoardSize size, String spriteSheet) {
+        return CACHE.computeIfAbsent(spriteSheet + " " + size, key -> {
+            Image[] images = new Image[size.cells()];
+            Rectangle2D[] viewports = new Rectangle2D[size.cells()];
+            URL url = TileImages.class.getResource(spriteSheet);
+            if (url == null) {
+                return new TileImages(images, viewports, true);
+            }
+            Image sheet = new Image(url.toExternalForm());
+            double width = sheet.getWidth() / size.cols();
+            double height = sheet.getHeight() / size.lines();
+            for (int piece = 1; piece < images.length; piece++) {
+                int goalCell = piece - 1;
+                images[piece] = sheet;
+                viewports[piece] = new Rectangle2D((goalCell % size.cols()) * width,
+                        (goalCell / size.cols()) * height, width, height);
+            }
+            return new TileImages(images, viewports, true);
+        });
+    }
+
+    /**
+     * Files when there is one for each piece of that size, otherwise the sprite sheet
+     *
+     * @param size number of lines and columns
+     * @return the shared images for that size
+     */
+    public static TileImages forSize(BoardSize size) {
+        TileImages files = TileImages.files(size);
+        for (Image image : files.images) {
+            if (image == null) {
+                return TileImages.sprites(size, SPRITE_SHEET);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return true if the images are regions of a sprite sheet, without the piece number
+     */
+    public boolean isSprite() {
+        return this.sprite;
+    }
+
+    /**
+     * Shows the image of a piece in view
+     *
+     * @param view  the image view to reuse
+     * @param piece the piece number, or Model.EMPTY
+     * @return false if there is no image for the piece
+     */
+    boolean show(ImageView view, int piece) {
+        Image image = piece < this.images.length ? this.images[piece] : null;
+        view.setImage(image);
+        view.setViewport(image == null ? null : this.viewports[piece]);
+        return image != null;
+    }
+}